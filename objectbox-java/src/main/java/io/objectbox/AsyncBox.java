@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.objectbox;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.annotation.apihint.Experimental;
+import io.objectbox.internal.ReflectionCache;
+
+/**
+ * Asynchronous write operations for a {@link Box}, get an instance via {@link Box#async()}.
+ * <p>
+ * Operations are queued and executed on a single writer thread of the {@link BoxStore}. Operations submitted
+ * concurrently (by any number of threads, for any box of the store) are grouped into a single write transaction,
+ * which is typically a lot more efficient than a transaction per operation. See
+ * {@link BoxStoreBuilder#asyncWriteQueueCapacity(int)} and {@link BoxStoreBuilder#asyncWriteBatch(int, long)} to
+ * configure this.
+ * <p>
+ * The returned futures complete once the transaction was committed. If an operation fails (e.g. because of a
+ * unique constraint violation), only its future completes exceptionally; if the transaction can not be committed,
+ * all futures of that transaction complete exceptionally. Writes of a failed operation are never committed.
+ * <p>
+ * If the queue is full, the calling thread blocks until there is room again. Except if called from the writer thread
+ * (e.g. in a dependent stage of a future), then the returned future fails immediately.
+ * <p>
+ * Note: futures are completed on the writer thread; avoid long running work in dependent stages or use the async
+ * variants (e.g. {@link CompletableFuture#thenAcceptAsync}) so the writer thread is not blocked.
+ * Also, do not modify an entity passed to this class until its future has completed.
+ */
+@Experimental
+public class AsyncBox<T> {
+
+    private final Box<T> box;
+    private final AsyncWriteQueue writeQueue;
+
+    AsyncBox(Box<T> box, AsyncWriteQueue writeQueue) {
+        this.box = box;
+        this.writeQueue = writeQueue;
+    }
+
+    /** The box this instance writes to. */
+    public Box<T> getBox() {
+        return box;
+    }
+
+    /**
+     * Asynchronously puts the given object, see {@link Box#put(Object)}.
+     *
+     * @return a future completing with the ID of the object once it was committed.
+     */
+    public CompletableFuture<Long> put(T entity) {
+        return writeQueue.submit(() -> box.put(entity), resetIdsOfNew(entity));
+    }
+
+    /**
+     * Asynchronously puts the given objects, see {@link Box#put(Collection)}.
+     *
+     * @return a future completing once the objects were committed.
+     */
+    public CompletableFuture<Void> put(Collection<T> entities) {
+        List<T> newEntities = new ArrayList<>();
+        for (T entity : entities) {
+            if (box.getId(entity) == 0) {
+                newEntities.add(entity);
+            }
+        }
+        return writeQueue.submit(() -> {
+            box.put(entities);
+            return null;
+        }, newEntities.isEmpty() ? null : () -> resetIds(newEntities));
+    }
+
+    /**
+     * If the entity is new, returns a rollback that resets the ID assigned by a put whose transaction did not
+     * commit. Otherwise, putting it again would fail as the ID was never issued.
+     */
+    @Nullable
+    private Runnable resetIdsOfNew(T entity) {
+        if (box.getId(entity) != 0) return null;
+        return () -> resetIds(Collections.singletonList(entity));
+    }
+
+    private void resetIds(List<T> entities) {
+        Field idField = ReflectionCache.getInstance()
+                .getField(box.getEntityClass(), box.getEntityInfo().getIdProperty().name);
+        try {
+            for (T entity : entities) {
+                idField.set(entity, 0L);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Could not reset ID of " + box.getEntityClass(), e);
+        }
+    }
+
+    /**
+     * Asynchronously removes the object with the given ID, see {@link Box#remove(long)}.
+     *
+     * @return a future completing with true if an object was removed once the removal was committed.
+     */
+    public CompletableFuture<Boolean> remove(long id) {
+        return writeQueue.submit(() -> box.remove(id));
+    }
+
+    /**
+     * Asynchronously removes the given object, see {@link Box#remove(Object)}.
+     *
+     * @return a future completing with true if an object was removed once the removal was committed.
+     */
+    public CompletableFuture<Boolean> remove(T entity) {
+        return writeQueue.submit(() -> box.remove(entity));
+    }
+
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.objectbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.annotation.apihint.Internal;
+
+/**
+ * Queues write operations submitted by any number of threads (e.g. via {@link AsyncBox}) and executes them on a
+ * single writer thread. All operations available when the writer gets to run (up to a max batch size) are grouped
+ * into a single write transaction ("group commit"), so the cost of a commit is shared among all of them.
+ * <p>
+ * If an operation fails, the transaction is aborted so no writes of the failed operation are committed; the
+ * remaining operations of the batch are then run again in a new transaction. Operations may supply a rollback
+ * action to undo changes they made to objects (e.g. assigned IDs) when their transaction did not commit.
+ * <p>
+ * The queue is bounded: once it is full, submitting threads block until the writer made room (back-pressure).
+ * The writer thread itself can not wait (e.g. when submitting from a dependent stage of a future), for it
+ * submitting to a full queue fails instead.
+ * Like {@link ObjectClassPublisher}, the writer thread is only scheduled while there are queued operations.
+ */
+@Internal
+class AsyncWriteQueue implements Runnable {
+
+    /** A queued operation, completes its future once the transaction it was executed in was committed. */
+    static final class Operation<R> {
+        private final Supplier<R> action;
+        @Nullable private final Runnable rollback;
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        @Nullable private R result;
+        @Nullable private RuntimeException failure;
+
+        Operation(Supplier<R> action, @Nullable Runnable rollback) {
+            this.action = action;
+            this.rollback = rollback;
+        }
+
+        /**
+         * Runs the action inside the active write transaction.
+         *
+         * @return false if the action failed.
+         */
+        boolean execute() {
+            failure = null;
+            try {
+                result = action.get();
+                return true;
+            } catch (RuntimeException e) {
+                failure = e;
+                return false;
+            }
+        }
+
+        /** Called if the transaction the action was run in did not commit. */
+        void rollback() {
+            result = null;
+            if (rollback != null) {
+                try {
+                    rollback.run();
+                } catch (RuntimeException e) {
+                    // Can not be run again safely.
+                    failure = e;
+                }
+            }
+        }
+
+        boolean hasFailed() {
+            return failure != null;
+        }
+
+        /**
+         * Completes the future; if txFailure is set, the transaction did not commit and the operation fails even if
+         * its action succeeded.
+         */
+        void finish(@Nullable Throwable txFailure) {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else if (txFailure != null) {
+                future.completeExceptionally(txFailure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    private final BoxStore boxStore;
+    private final BlockingQueue<Operation<?>> queue;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+
+    /** Guards {@link #writerRunning} together with taking the first operation of a batch from the queue. */
+    private final Object writerLock = new Object();
+    private boolean writerRunning;
+    /** The thread currently running {@link #run()}, if any. */
+    @Nullable private volatile Thread writerThread;
+
+    /** Thrown inside the transaction to abort it once an operation failed. */
+    private static final class OperationFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        OperationFailedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    AsyncWriteQueue(BoxStore boxStore, int capacity, int maxBatchSize, long maxDelayMillis) {
+        this.boxStore = boxStore;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    }
+
+    /**
+     * Enqueues the given action to be run inside a write transaction on the writer thread.
+     * Blocks while the queue is full.
+     */
+    <R> CompletableFuture<R> submit(Supplier<R> action) {
+        return submit(action, null);
+    }
+
+    /**
+     * Like {@link #submit(Supplier)}; the given rollback is run each time the transaction the action was run in
+     * did not commit.
+     */
+    <R> CompletableFuture<R> submit(Supplier<R> action, @Nullable Runnable rollback) {
+        if (boxStore.isClosed()) {
+            throw new IllegalStateException("Store is closed");
+        }
+        Operation<R> operation = new Operation<>(action, rollback);
+        if (Thread.currentThread() == writerThread) {
+            // Waiting for room would deadlock: only this thread takes operations from the queue.
+            if (!queue.offer(operation)) {
+                operation.future.completeExceptionally(
+                        new RejectedExecutionException("Async write queue is full, can not wait on the writer thread"));
+                return operation.future;
+            }
+        } else {
+            try {
+                queue.put(operation);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                operation.future.completeExceptionally(e);
+                return operation.future;
+            }
+        }
+        synchronized (writerLock) {
+            // Only one thread at a time.
+            if (!writerRunning) {
+                writerRunning = true;
+                try {
+                    boxStore.internalScheduleThread(this);
+                } catch (RejectedExecutionException e) {
+                    // Store was closed concurrently, thread pool no longer accepts tasks.
+                    writerRunning = false;
+                    failQueued(new IllegalStateException("Store is closed", e));
+                }
+            }
+        }
+        return operation.future;
+    }
+
+    /** Number of operations currently waiting for the writer thread. */
+    int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void run() {
+        List<Operation<?>> batch = new ArrayList<>(Math.min(maxBatchSize, 1024));
+        writerThread = Thread.currentThread();
+        try {
+            while (true) {
+                synchronized (writerLock) {
+                    Operation<?> first = queue.poll();
+                    if (first == null) {
+                        writerRunning = false;
+                        break;
+                    }
+                    batch.add(first);
+                }
+                fillBatch(batch);
+                writeBatch(batch);
+                batch.clear();
+            }
+        } finally {
+            writerThread = null;
+            // Just in case of exceptions; it's better done within synchronized for regular cases
+            synchronized (writerLock) {
+                writerRunning = false;
+            }
+        }
+    }
+
+    /** Adds already queued operations and, if a max delay is set, waits up to that long for more to arrive. */
+    private void fillBatch(List<Operation<?>> batch) {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        if (maxDelayNanos <= 0) return;
+
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) break;
+            Operation<?> next;
+            try {
+                next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (next == null) break;
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    /**
+     * Runs the batch in a single transaction. If an operation fails, the transaction is aborted and the remaining
+     * operations are run again without it, so only futures of operations that actually failed fail.
+     */
+    private void writeBatch(List<Operation<?>> batch) {
+        List<Operation<?>> pending = batch;
+        while (!pending.isEmpty()) {
+            List<Operation<?>> attempt = pending;
+            try {
+                boxStore.runInTx(() -> {
+                    for (Operation<?> operation : attempt) {
+                        if (!operation.execute()) {
+                            throw new OperationFailedException();
+                        }
+                    }
+                });
+            } catch (OperationFailedException e) {
+                rollback(attempt);
+                pending = new ArrayList<>(attempt.size());
+                for (Operation<?> operation : attempt) {
+                    if (operation.hasFailed()) {
+                        operation.finish(null);
+                    } else {
+                        pending.add(operation);
+                    }
+                }
+                continue;
+            } catch (Throwable e) {
+                rollback(attempt);
+                for (Operation<?> operation : attempt) {
+                    operation.finish(e);
+                }
+                return;
+            }
+            for (Operation<?> operation : attempt) {
+                operation.finish(null);
+            }
+            return;
+        }
+    }
+
+    private void rollback(List<Operation<?>> operations) {
+        for (Operation<?> operation : operations) {
+            operation.rollback();
+        }
+    }
+
+    private void failQueued(Throwable failure) {
+        Operation<?> operation;
+        while ((operation = queue.poll()) != null) {
+            operation.future.completeExceptionally(failure);
+        }
+    }
+
+}
@@ -31,12 +31,18 @@ import javax.annotation.concurrent.ThreadSafe;
 import io.objectbox.annotation.apihint.Beta;
 import io.objectbox.annotation.apihint.Experimental;
 import io.objectbox.annotation.apihint.Internal;
+import io.objectbox.collect.LongArrayList;
+import io.objectbox.collect.LongCollection;
+import io.objectbox.collect.LongHashSet;
+import io.objectbox.collect.LongObjectMap;
 import io.objectbox.exception.DbException;
 import io.objectbox.internal.CallWithHandle;
 import io.objectbox.internal.IdGetter;
 import io.objectbox.internal.ReflectionCache;
+import io.objectbox.query.PreparedQuery;
 import io.objectbox.query.QueryBuilder;
 import io.objectbox.query.QueryCondition;
+import io.objectbox.query.QueryDefinition;
 import io.objectbox.relation.RelationInfo;
 
 /**
@@ -58,6 +64,7 @@ public class Box<T> {
 
     private EntityInfo<T> entityInfo;
     private volatile Field boxStoreField;
+    private volatile AsyncBox<T> asyncBox;
 
     Box(BoxStore store, Class<T> entityClass) {
         this.store = store;
@@ -69,6 +76,14 @@ public class Box<T> {
         Cursor<T> cursor = getActiveTxCursor();
         if (cursor != null) {
             return cursor;
+        } else if (store.readTxPool != null) {
+            Transaction tx = store.readTxPool.checkOut();
+            try {
+                return tx.getPooledCursor(entityClass);
+            } catch (RuntimeException e) {
+                store.readTxPool.checkIn(tx);
+                throw e;
+            }
         } else {
             cursor = threadLocalReader.get();
             if (cursor != null) {
@@ -96,6 +111,7 @@ public class Box<T> {
             if (cursor == null || cursor.getTx().isClosed()) {
                 cursor = activeTx.createCursor(entityClass);
                 activeTxCursor.set(cursor);
+                activeTx.addBoxWithActiveTxCursor(this);
             }
             return cursor;
         }
@@ -141,6 +157,10 @@ public class Box<T> {
         // NOP if TX is ongoing
         if (activeTxCursor.get() == null) {
             Transaction tx = cursor.getTx();
+            if (tx.pooled && store.readTxPool != null) {
+                store.readTxPool.checkIn(tx);
+                return;
+            }
             if (tx.isClosed() || tx.isRecycled() || !tx.isReadOnly()) {
                 throw new IllegalStateException("Illegal reader TX state");
             }
@@ -174,7 +194,8 @@ public class Box<T> {
     }
 
     /**
-     * Called by {@link BoxStore#callInReadTx(Callable)} - does not throw so caller does not need try/finally.
+     * Called by {@link BoxStore#callInReadTx(Callable)} and once a write TX of {@link BoxStore#runInTx(Runnable)}
+     * ended (also if aborted) - does not throw so caller does not need try/finally.
      */
     void readTxFinished(Transaction tx) {
         Cursor<T> cursor = activeTxCursor.get();
@@ -240,19 +261,20 @@ public class Box<T> {
      * @return null if not found
      */
     public List<T> get(long[] ids) {
-        ArrayList<T> list = new ArrayList<>(ids.length);
         Cursor<T> reader = getReader();
         try {
-            for (Long id : ids) {
-                T entity = reader.get(id);
-                if (entity != null) {
-                    list.add(entity);
-                }
-            }
+            return reader.getBatch(ids);
         } finally {
             releaseReader(reader);
         }
-        return list;
+    }
+
+    /**
+     * Like {@link #get(long[])}, but for IDs in a {@link LongCollection}, e.g. a {@link LongArrayList}
+     * (keeps order) or a {@link LongHashSet}.
+     */
+    public List<T> get(LongCollection ids) {
+        return get(ids.toArray());
     }
 
     /**
@@ -274,6 +296,28 @@ public class Box<T> {
         return map;
     }
 
+    /**
+     * Like {@link #getMap(Iterable)}, but does not box IDs: gets the stored objects for the given IDs as a map with
+     * primitive long keys. IDs for which no object is found are put in the map with null values.
+     */
+    public LongObjectMap<T> getMap(long[] ids) {
+        LongObjectMap<T> map = new LongObjectMap<>(ids.length);
+        Cursor<T> reader = getReader();
+        try {
+            for (long id : ids) {
+                map.put(id, reader.get(id));
+            }
+        } finally {
+            releaseReader(reader);
+        }
+        return map;
+    }
+
+    /** Like {@link #getMap(long[])}, but for IDs in a {@link LongCollection}. */
+    public LongObjectMap<T> getMap(LongCollection ids) {
+        return getMap(ids.toArray());
+    }
+
     /**
      * Returns the count of all stored objects in this box.
      */
@@ -344,6 +388,7 @@ public class Box<T> {
         Cursor<T> cursor = getWriter();
         try {
             long key = cursor.put(entity);
+            cursor.trackChanged(key);
             commitWriter(cursor);
             return key;
         } finally {
@@ -363,7 +408,7 @@ public class Box<T> {
         Cursor<T> cursor = getWriter();
         try {
             for (T entity : entities) {
-                cursor.put(entity);
+                cursor.trackChanged(cursor.put(entity));
             }
             commitWriter(cursor);
         } finally {
@@ -384,9 +429,7 @@ public class Box<T> {
 
         Cursor<T> cursor = getWriter();
         try {
-            for (T entity : entities) {
-                cursor.put(entity);
-            }
+            cursor.putBatch(entities);
             commitWriter(cursor);
         } finally {
             releaseWriter(cursor);
@@ -484,6 +527,16 @@ public class Box<T> {
         }
     }
 
+    /**
+     * Like {@link #removeByIds(Collection)}, but for IDs in a {@link LongCollection}, avoiding boxing.
+     */
+    public void removeByIds(@Nullable LongCollection ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        remove(ids.toArray());
+    }
+
     /**
      * Removes (deletes) the given Object.
      * @return true if an entity was actually removed (false if no entity exists with the given ID)
@@ -600,10 +653,36 @@ public class Box<T> {
         return query().apply(queryCondition);
     }
 
+    /**
+     * Returns a query for the given definition that can be used by multiple threads concurrently, binding parameter
+     * values per call. See {@link PreparedQuery} for details.
+     * <pre>
+     * PreparedQuery&lt;User&gt; byAge = box.prepareQuery(qb -&gt; qb.greater(User_.age, 0).order(User_.name));
+     * List&lt;User&gt; adults = byAge.bind(User_.age, 17).find();
+     * </pre>
+     */
+    public PreparedQuery<T> prepareQuery(QueryDefinition<T> definition) {
+        return new PreparedQuery<>(this, definition, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
     public BoxStore getStore() {
         return store;
     }
 
+    /**
+     * Returns an {@link AsyncBox} to put and remove objects of this box asynchronously.
+     * Operations of all async boxes of a store are grouped into shared write transactions.
+     */
+    @Experimental
+    public AsyncBox<T> async() {
+        AsyncBox<T> async = asyncBox;
+        if (async == null) {
+            async = new AsyncBox<>(this, store.getAsyncWriteQueue());
+            asyncBox = async;
+        }
+        return async;
+    }
+
     public synchronized EntityInfo<T> getEntityInfo() {
         if (entityInfo == null) {
             Cursor<T> reader = getReader();
@@ -722,6 +801,8 @@ public class Box<T> {
         Cursor<T> writer = getWriter();
         RESULT result;
         try {
+            // Native operations (e.g. query remove) do not report which objects changed.
+            writer.trackChangesIncomplete();
             result = task.call(writer.internalHandle());
             commitWriter(writer);
         } finally {
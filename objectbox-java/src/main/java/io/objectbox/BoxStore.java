@@ -24,20 +24,20 @@ import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -45,12 +45,19 @@ import javax.annotation.concurrent.ThreadSafe;
 import io.objectbox.annotation.apihint.Beta;
 import io.objectbox.annotation.apihint.Experimental;
 import io.objectbox.annotation.apihint.Internal;
+import io.objectbox.collect.LongHashSet;
 import io.objectbox.converter.PropertyConverter;
 import io.objectbox.exception.DbException;
 import io.objectbox.exception.DbExceptionListener;
 import io.objectbox.exception.DbSchemaException;
 import io.objectbox.internal.NativeLibraryLoader;
+import io.objectbox.internal.ExecutorMetrics;
+import io.objectbox.internal.ObjectBoxExecutorService;
 import io.objectbox.internal.ObjectBoxThreadPool;
+import io.objectbox.model.Model;
+import io.objectbox.model.ModelEntity;
+import io.objectbox.model.ModelProperty;
+import io.objectbox.model.PropertyFlags;
 import io.objectbox.reactive.DataObserver;
 import io.objectbox.reactive.DataPublisher;
 import io.objectbox.reactive.SubscriptionBuilder;
@@ -220,14 +227,27 @@ public class BoxStore implements Closeable {
     private final Map<Class<?>, Integer> entityTypeIdByClass = new HashMap<>();
     private final Map<Class<?>, EntityInfo<?>> propertiesByClass = new HashMap<>();
     private final LongHashMap<Class<?>> classByEntityTypeId = new LongHashMap<>();
+    /** Properties flagged unsigned in the model, see {@link #propertyKey(long, long)}. */
+    private final LongHashSet unsignedProperties = new LongHashSet();
     private final int[] allEntityTypeIds;
+    /** Commit count per entity type ID; see {@link #internalEntityTypeCommitCount(int)}. */
+    private final AtomicLongArray entityTypeCommitCounts;
     private final Map<Class<?>, Box<?>> boxes = new ConcurrentHashMap<>();
-    private final Set<Transaction> transactions = Collections.newSetFromMap(new WeakHashMap<>());
-    private final ExecutorService threadPool = new ObjectBoxThreadPool(this);
+    private final TransactionRegistry transactions = new TransactionRegistry();
+    private final ExecutorService threadPool;
     private final ObjectClassPublisher objectClassPublisher;
+    private final ObjectChangesPublisher objectChangesPublisher;
+    private final AsyncWriteQueue asyncWriteQueue;
+    /** If set, read transactions of Box and queries are checked out from this pool. */
+    @Nullable final ReadTxPool readTxPool;
     final boolean debugTxRead;
     final boolean debugTxWrite;
     final boolean debugRelations;
+    private final boolean noReaderThreadLocals;
+    /** If opened read-only, no commits can happen, so snapshots do not need to block writers. */
+    private final boolean openedReadOnly;
+    /** Reader slots not used by the {@link #readTxPool}, limits the parallelism of snapshots. */
+    private final int snapshotMaxReaders;
 
     /** Set when running inside TX */
     final ThreadLocal<Transaction> activeTx = new ThreadLocal<>();
@@ -254,6 +274,13 @@ public class BoxStore implements Closeable {
     BoxStore(BoxStoreBuilder builder) {
         context = builder.context;
         relinker = builder.relinker;
+        if (builder.executor != null) {
+            threadPool = new ObjectBoxExecutorService(this, builder.executor);
+        } else if (builder.threadPoolMaxThreads > 0) {
+            threadPool = new ObjectBoxThreadPool(this, builder.threadPoolMaxThreads, builder.threadPoolQueueCapacity);
+        } else {
+            threadPool = new ObjectBoxThreadPool(this);
+        }
         NativeLibraryLoader.ensureLoaded();
 
         directory = builder.directory;
@@ -272,6 +299,9 @@ public class BoxStore implements Closeable {
                 debugTxRead = debugTxWrite = false;
             }
             debugRelations = builder.debugRelations;
+            noReaderThreadLocals = builder.noReaderThreadLocals;
+            openedReadOnly = builder.readOnly;
+            snapshotMaxReaders = builder.getEffectiveMaxReaders() - builder.readTxPoolSize;
 
             for (EntityInfo<?> entityInfo : builder.entityInfoList) {
                 try {
@@ -293,14 +323,27 @@ public class BoxStore implements Closeable {
                     throw new RuntimeException("Could not setup up entity " + entityInfo.getEntityClass(), e);
                 }
             }
+            if (builder.model != null) {
+                collectUnsignedProperties(builder.model);
+            }
             int size = classByEntityTypeId.size();
             allEntityTypeIds = new int[size];
             long[] entityIdsLong = classByEntityTypeId.keys();
             for (int i = 0; i < size; i++) {
                 allEntityTypeIds[i] = (int) entityIdsLong[i];
             }
+            int maxEntityTypeId = 0;
+            for (int entityTypeId : allEntityTypeIds) {
+                maxEntityTypeId = Math.max(maxEntityTypeId, entityTypeId);
+            }
+            entityTypeCommitCounts = new AtomicLongArray(maxEntityTypeId + 1);
 
             objectClassPublisher = new ObjectClassPublisher(this);
+            objectChangesPublisher = new ObjectChangesPublisher(this);
+            asyncWriteQueue = new AsyncWriteQueue(this, builder.asyncWriteQueueCapacity,
+                    builder.asyncWriteMaxBatchSize, builder.asyncWriteMaxDelayMillis);
+
+            readTxPool = builder.readTxPoolSize > 0 ? new ReadTxPool(this, builder.readTxPoolSize) : null;
 
             failedReadTxAttemptCallback = builder.failedReadTxAttemptCallback;
             queryAttempts = Math.max(builder.queryAttempts, 1);
@@ -481,6 +524,28 @@ public class BoxStore implements Closeable {
         }
     }
 
+    private void collectUnsignedProperties(byte[] modelBytes) {
+        Model model = Model.getRootAsModel(ByteBuffer.wrap(modelBytes));
+        for (int i = 0; i < model.entitiesLength(); i++) {
+            ModelEntity entity = model.entities(i);
+            for (int j = 0; j < entity.propertiesLength(); j++) {
+                ModelProperty property = entity.properties(j);
+                if ((property.flags() & PropertyFlags.UNSIGNED) != 0) {
+                    unsignedProperties.add(propertyKey(entity.id().id(), property.id().id()));
+                }
+            }
+        }
+    }
+
+    private static long propertyKey(long entityId, long propertyId) {
+        return entityId << 32 | propertyId;
+    }
+
+    /** True if the property is flagged unsigned (e.g. annotated with @Unsigned), Java types are signed. */
+    boolean isUnsigned(Property<?> property) {
+        return unsignedProperties.contains(propertyKey(property.entity.getEntityId(), property.id));
+    }
+
     String getDbName(Class<?> entityClass) {
         return dbNameByClass.get(entityClass);
     }
@@ -507,6 +572,15 @@ public class BoxStore implements Closeable {
         return allEntityTypeIds;
     }
 
+    /**
+     * Returns the number of committed transactions that changed objects of the given entity type since this store
+     * was opened. Only increases (overflow aside), so it can be used to detect changes, e.g. to invalidate caches.
+     */
+    @Internal
+    public long internalEntityTypeCommitCount(int entityTypeId) {
+        return entityTypeCommitCounts.get(entityTypeId);
+    }
+
     @Internal
     Class<?> getEntityClassOrThrow(int entityTypeId) {
         Class<?> clazz = classByEntityTypeId.get(entityTypeId);
@@ -537,9 +611,10 @@ public class BoxStore implements Closeable {
         if(nativeTx == 0) throw new DbException("Could not create native transaction");
 
         Transaction tx = new Transaction(this, nativeTx, initialCommitCount);
-        synchronized (transactions) {
-            transactions.add(tx);
+        if (objectChangesPublisher.hasObservers()) {
+            tx.changes = new TxChanges();
         }
+        transactions.register(tx);
         return tx;
     }
 
@@ -563,9 +638,7 @@ public class BoxStore implements Closeable {
         if(nativeTx == 0) throw new DbException("Could not create native read transaction");
 
         Transaction tx = new Transaction(this, nativeTx, initialCommitCount);
-        synchronized (transactions) {
-            transactions.add(tx);
-        }
+        transactions.register(tx);
         return tx;
     }
 
@@ -573,6 +646,85 @@ public class BoxStore implements Closeable {
         return closed;
     }
 
+    /**
+     * Like {@link #snapshot(int)} with a parallelism of the number of available processors, at most the number of
+     * reader slots not used by the read TX pool.
+     */
+    @Experimental
+    public ReadSnapshot snapshot() {
+        return snapshot(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), snapshotMaxReaders)));
+    }
+
+    /**
+     * Begins a read view of the current data that can be shared by multiple threads, e.g. to run computations or
+     * exports in parallel that must all see the data of the same commit. See {@link ReadSnapshot} for details.
+     * <p>
+     * Begins one read transaction for each of up to parallelism threads reading at the same time. To make them all
+     * see the same commit, other writers are blocked while they are created (unless the store is read-only).
+     * These transactions take reader slots (see {@link BoxStoreBuilder#maxReaders(int)}) until the snapshot is
+     * closed, so parallelism must not exceed the slots not used by the read TX pool
+     * (see {@link BoxStoreBuilder#readTxPoolSize(int)}); leave some for other readers.
+     * <p>
+     * Requires {@link BoxStoreBuilder#noReaderThreadLocals()}, as the read transactions of the snapshot are used by
+     * multiple threads.
+     */
+    @Experimental
+    public ReadSnapshot snapshot(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be >= 1");
+        }
+        if (parallelism > snapshotMaxReaders) {
+            throw new IllegalArgumentException("Parallelism " + parallelism + " exceeds the " + snapshotMaxReaders
+                    + " reader slots not used by the read TX pool");
+        }
+        if (!noReaderThreadLocals) {
+            throw new IllegalStateException("Snapshots require a store built with noReaderThreadLocals()");
+        }
+        if (activeTx.get() != null) {
+            throw new IllegalStateException("Can not create a snapshot inside a transaction");
+        }
+        // The commit count of a writer that committed just before may not be updated yet: try again.
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            List<Transaction> snapshotTxs = beginSnapshotTxs(parallelism);
+            int commitCount = snapshotTxs.get(0).getInitialCommitCount();
+            boolean sameCommitCount = true;
+            for (Transaction tx : snapshotTxs) {
+                sameCommitCount &= tx.getInitialCommitCount() == commitCount;
+            }
+            if (sameCommitCount) {
+                return new ReadSnapshot(this, snapshotTxs, commitCount);
+            }
+            for (Transaction tx : snapshotTxs) {
+                tx.close();
+            }
+        }
+        throw new DbException("Could not begin snapshot transactions with the same commit count");
+    }
+
+    private List<Transaction> beginSnapshotTxs(int count) {
+        List<Transaction> snapshotTxs = new ArrayList<>(count);
+        // Blocks commits until all read TXs were begun; not possible (and not needed) for read-only stores.
+        Transaction writeTx = openedReadOnly ? null : beginTx();
+        try {
+            for (int i = 0; i < count; i++) {
+                Transaction tx = beginReadTx();
+                tx.snapshot = true;
+                snapshotTxs.add(tx);
+            }
+        } catch (RuntimeException e) {
+            for (Transaction tx : snapshotTxs) {
+                tx.close();
+            }
+            throw e;
+        } finally {
+            if (writeTx != null) {
+                writeTx.abort();
+                writeTx.close();
+            }
+        }
+        return snapshotTxs;
+    }
+
     /**
      * Whether the store was created using read-only mode.
      * If true the schema is not updated and write transactions are not possible.
@@ -606,11 +758,10 @@ public class BoxStore implements Closeable {
 
                 // Closeable recommendation: mark as closed before any code that might throw.
                 closed = true;
-                List<Transaction> transactionsToClose;
-                synchronized (transactions) {
-                    transactionsToClose = new ArrayList<>(this.transactions);
+                if (readTxPool != null) {
+                    readTxPool.close();
                 }
-                for (Transaction t : transactionsToClose) {
+                for (Transaction t : transactions.getTransactions()) {
                     t.close();
                 }
                 if (handle != 0) { // failed before native handle was created?
@@ -765,9 +916,16 @@ public class BoxStore implements Closeable {
 
     @Internal
     public void unregisterTransaction(Transaction transaction) {
-        synchronized (transactions) {
-            transactions.remove(transaction);
-        }
+        transactions.unregister(transaction);
+    }
+
+    /**
+     * Returns the number of transactions that were begun and not closed yet; may include transactions that were not
+     * closed and recently garbage collected. Useful to diagnose leaked transactions along with {@link #diagnose()}.
+     */
+    @Internal
+    public int internalOpenTransactionCount() {
+        return transactions.size();
     }
 
     void txCommitted(Transaction tx, @Nullable int[] entityTypeIdsAffected) {
@@ -780,12 +938,23 @@ public class BoxStore implements Closeable {
             }
         }
 
-        for (Box<?> box : boxes.values()) {
+        // Only boxes that have a cursor for this TX, not all boxes of this store.
+        for (Box<?> box : tx.getBoxesWithActiveTxCursor()) {
             box.txCommitted(tx);
         }
 
         if (entityTypeIdsAffected != null) {
+            // Before returning to the committing thread, so it can not see outdated cached query results.
+            for (int entityTypeId : entityTypeIdsAffected) {
+                if (entityTypeId >= 0 && entityTypeId < entityTypeCommitCounts.length()) {
+                    entityTypeCommitCounts.incrementAndGet(entityTypeId);
+                }
+            }
             objectClassPublisher.publish(entityTypeIdsAffected);
+            if (objectChangesPublisher.hasObservers()) {
+                TxChanges changes = tx.changes != null ? tx.changes : new TxChanges();
+                objectChangesPublisher.publish(changes.toObjectChanges(this, entityTypeIdsAffected));
+            }
         }
     }
 
@@ -831,6 +1000,8 @@ public class BoxStore implements Closeable {
                 tx.commit();
             } finally {
                 activeTx.remove();
+                // Clears cursors if the TX was aborted; after a commit, txCommitted already did.
+                tx.readTxFinished();
                 tx.close();
             }
         } else {
@@ -851,26 +1022,34 @@ public class BoxStore implements Closeable {
         Transaction tx = activeTx.get();
         // Only if not already set, allowing to call it recursively with first (outer) TX
         if (tx == null) {
-            tx = beginReadTx();
+            tx = beginOrCheckOutReadTx();
             activeTx.set(tx);
             try {
                 runnable.run();
             } finally {
                 activeTx.remove();
 
-                // TODO That's rather a quick fix, replace with a more general solution
-                // (that could maybe be a TX listener with abort callback?)
-                for (Box<?> box : boxes.values()) {
-                    box.readTxFinished(tx);
-                }
+                tx.readTxFinished();
 
-                tx.close();
+                closeOrCheckInReadTx(tx);
             }
         } else {
             runnable.run();
         }
     }
 
+    private Transaction beginOrCheckOutReadTx() {
+        return readTxPool != null ? readTxPool.checkOut() : beginReadTx();
+    }
+
+    private void closeOrCheckInReadTx(Transaction tx) {
+        if (readTxPool != null) {
+            readTxPool.checkIn(tx);
+        } else {
+            tx.close();
+        }
+    }
+
     /**
      * Calls {@link #callInReadTx(Callable)} and retries in case a DbException is thrown.
      * If the given amount of attempts is reached, the last DbException will be thrown.
@@ -930,7 +1109,7 @@ public class BoxStore implements Closeable {
         Transaction tx = activeTx.get();
         // Only if not already set, allowing to call it recursively with first (outer) TX
         if (tx == null) {
-            tx = beginReadTx();
+            tx = beginOrCheckOutReadTx();
             activeTx.set(tx);
             try {
                 return callable.call();
@@ -941,13 +1120,9 @@ public class BoxStore implements Closeable {
             } finally {
                 activeTx.remove();
 
-                // TODO That's rather a quick fix, replace with a more general solution
-                // (that could maybe be a TX listener with abort callback?)
-                for (Box<?> box : boxes.values()) {
-                    box.readTxFinished(tx);
-                }
+                tx.readTxFinished();
 
-                tx.close();
+                closeOrCheckInReadTx(tx);
             }
         } else {
             try {
@@ -973,6 +1148,8 @@ public class BoxStore implements Closeable {
                 return result;
             } finally {
                 activeTx.remove();
+                // Clears cursors if the TX was aborted; after a commit, txCommitted already did.
+                tx.readTxFinished();
                 tx.close();
             }
         } else {
@@ -1198,11 +1375,65 @@ public class BoxStore implements Closeable {
         return new SubscriptionBuilder<>((DataPublisher) objectClassPublisher, forClass);
     }
 
+    /**
+     * Like {@link #subscribe()}, but observers receive {@link ObjectChanges} for each entity type affected by a
+     * committed transaction: the IDs of objects put and removed. This allows e.g. targeted cache invalidation.
+     * <p>
+     * While there are observers, write transactions record the IDs of changed objects, which adds a small overhead.
+     * <p>
+     * When subscribing (unless {@link SubscriptionBuilder#onlyChanges()} is used), the observer first receives
+     * incomplete changes without IDs, meaning any object may have changed.
+     */
+    @Experimental
+    public SubscriptionBuilder<ObjectChanges> subscribeChanges() {
+        return new SubscriptionBuilder<>(objectChangesPublisher, null);
+    }
+
+    /**
+     * Like {@link #subscribeChanges()}, but only for changes of the given object class.
+     */
+    @Experimental
+    public SubscriptionBuilder<ObjectChanges> subscribeChanges(Class<?> forClass) {
+        return new SubscriptionBuilder<>(objectChangesPublisher, forClass);
+    }
+
+    /**
+     * Approximate number of background tasks (e.g. delivering data to observers) waiting for a thread.
+     * See {@link BoxStoreBuilder#threadPool(int, int)} and {@link BoxStoreBuilder#executor(java.util.concurrent.Executor)}.
+     */
+    @Experimental
+    public int getExecutorQueuedTaskCount() {
+        return ((ExecutorMetrics) threadPool).getQueuedTaskCount();
+    }
+
+    /** Approximate number of background tasks (e.g. delivering data to observers) currently running. */
+    @Experimental
+    public int getExecutorActiveTaskCount() {
+        return ((ExecutorMetrics) threadPool).getActiveTaskCount();
+    }
+
+    AsyncWriteQueue getAsyncWriteQueue() {
+        return asyncWriteQueue;
+    }
+
     @Internal
     public Future<?> internalScheduleThread(Runnable runnable) {
         return threadPool.submit(runnable);
     }
 
+    /**
+     * Like {@link #internalScheduleThread(Runnable)}, but returns false instead of waiting if the queue of a bounded
+     * thread pool (see {@link BoxStoreBuilder#threadPool(int, int)}) is full.
+     */
+    @Internal
+    public boolean internalTryScheduleThread(Runnable runnable) {
+        if (threadPool instanceof ObjectBoxThreadPool) {
+            return ((ObjectBoxThreadPool) threadPool).tryExecute(runnable);
+        }
+        threadPool.submit(runnable);
+        return true;
+    }
+
     @Internal
     public ExecutorService internalThreadPool() {
         return threadPool;
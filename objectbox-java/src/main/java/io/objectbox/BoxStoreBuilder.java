@@ -31,6 +31,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -63,6 +64,12 @@ public class BoxStoreBuilder {
     /** The default maximum size the DB can grow to, which can be overwritten using {@link #maxSizeInKByte}. */
     public static final int DEFAULT_MAX_DB_SIZE_KBYTE = 1024 * 1024;
 
+    /** The default capacity of the async write queue, see {@link #asyncWriteQueueCapacity(int)}. */
+    public static final int DEFAULT_ASYNC_WRITE_QUEUE_CAPACITY = 10000;
+
+    /** The default max number of async operations per transaction, see {@link #asyncWriteBatch(int, long)}. */
+    public static final int DEFAULT_ASYNC_WRITE_MAX_BATCH_SIZE = 1000;
+
     final byte[] model;
 
     /** BoxStore uses this (not baseDirectory/name) */
@@ -91,8 +98,11 @@ public class BoxStoreBuilder {
 
     int fileMode;
 
+    static final int DEFAULT_MAX_READERS = 126;
+
     int maxReaders;
     boolean noReaderThreadLocals;
+    int readTxPoolSize;
 
     int queryAttempts;
 
@@ -107,6 +117,14 @@ public class BoxStoreBuilder {
 
     TxCallback<?> failedReadTxAttemptCallback;
 
+    int asyncWriteQueueCapacity = DEFAULT_ASYNC_WRITE_QUEUE_CAPACITY;
+    int asyncWriteMaxBatchSize = DEFAULT_ASYNC_WRITE_MAX_BATCH_SIZE;
+    long asyncWriteMaxDelayMillis;
+
+    @Nullable Executor executor;
+    int threadPoolMaxThreads;
+    int threadPoolQueueCapacity;
+
     final List<EntityInfo<?>> entityInfoList = new ArrayList<>();
     private Factory<InputStream> initialDbFileFactory;
 
@@ -319,6 +337,30 @@ public class BoxStoreBuilder {
         return this;
     }
 
+    /**
+     * Shares a pool of at most the given number of recycled read transactions between all threads, instead of each
+     * thread keeping its own. Makes sense with a lot of short-lived threads, e.g. virtual threads, or if there are
+     * more threads than reader slots: without a pool, each new thread begins a new read transaction and takes a
+     * reader slot. Reads of Box and Query use a pooled transaction; if all are in use, threads wait for one.
+     * <p>
+     * As pooled transactions are used by multiple threads, this implies {@link #noReaderThreadLocals()}.
+     * The size must not exceed {@link #maxReaders(int)} (default: 126); leave some slots for transactions begun
+     * outside the pool (e.g. by {@link BoxStore#runInReadTx(Runnable)} nested in other transactions) if needed.
+     * Snapshots (see {@link BoxStore#snapshot(int)}) also begin their transactions outside the pool: their
+     * parallelism is limited to the reader slots not used by the pool.
+     * Note that a thread holding a pooled transaction (e.g. inside {@link BoxStore#runInReadTx(Runnable)}) must not
+     * wait for other threads reading, or it may wait forever once all pooled transactions are in use.
+     */
+    @Experimental
+    public BoxStoreBuilder readTxPoolSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be >= 1");
+        }
+        this.readTxPoolSize = maxSize;
+        this.noReaderThreadLocals = true;
+        return this;
+    }
+
     @Internal
     public void entity(EntityInfo<?> entityInfo) {
         entityInfoList.add(entityInfo);
@@ -452,6 +494,92 @@ public class BoxStoreBuilder {
         return this;
     }
 
+    /**
+     * Sets the max number of operations the async write queue (see {@link Box#async()}) holds.
+     * Once the queue is full, threads submitting further operations block until there is room again
+     * (operations submitted by the writer thread itself fail instead).
+     * <p>
+     * Default: {@link #DEFAULT_ASYNC_WRITE_QUEUE_CAPACITY}
+     */
+    @Experimental
+    public BoxStoreBuilder asyncWriteQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be >= 1");
+        }
+        this.asyncWriteQueueCapacity = capacity;
+        return this;
+    }
+
+    /**
+     * Configures how async operations (see {@link Box#async()}) are grouped into write transactions.
+     * <p>
+     * A transaction contains at most maxBatchSize operations. By default (maxDelayMillis is 0), a transaction only
+     * contains the operations that are already queued once the writer thread gets to them. With a positive
+     * maxDelayMillis, the writer waits up to that long for more operations to arrive, trading latency for fewer
+     * commits.
+     * <p>
+     * Default: {@link #DEFAULT_ASYNC_WRITE_MAX_BATCH_SIZE} and 0 ms.
+     */
+    @Experimental
+    public BoxStoreBuilder asyncWriteBatch(int maxBatchSize, long maxDelayMillis) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Max batch size must be >= 1");
+        }
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Max delay must be >= 0");
+        }
+        this.asyncWriteMaxBatchSize = maxBatchSize;
+        this.asyncWriteMaxDelayMillis = maxDelayMillis;
+        return this;
+    }
+
+    /**
+     * Runs background work of the store (e.g. delivering data to observers, {@link BoxStore#runInTxAsync},
+     * {@link Box#async()}) on the given executor instead of the default thread pool.
+     * This can e.g. be a shared, bounded thread pool or, on JDK 21 and newer, a virtual thread per task executor.
+     * <p>
+     * Thread local resources of ObjectBox are released after each task.
+     * The executor is not shut down when the store is closed.
+     * <p>
+     * Can not be combined with {@link #threadPool(int, int)}.
+     */
+    @Experimental
+    public BoxStoreBuilder executor(Executor executor) {
+        if (threadPoolMaxThreads != 0) {
+            throw new IllegalStateException("Can not combine executor() with threadPool()");
+        }
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * The default thread pool for background work of the store (e.g. delivering data to observers) is unbounded:
+     * it creates as many threads as there are concurrent tasks, which may be a lot with many observers.
+     * This limits the pool to maxThreads threads; further tasks are queued. If queueCapacity tasks are already
+     * waiting, the thread submitting a task (e.g. committing a transaction) blocks until there is room
+     * (back-pressure). Tasks submitted from within the pool never block.
+     * <p>
+     * Use {@link BoxStore#getExecutorQueuedTaskCount()} and {@link BoxStore#getExecutorActiveTaskCount()} to monitor
+     * the pool.
+     * <p>
+     * Can not be combined with {@link #executor(Executor)}.
+     */
+    @Experimental
+    public BoxStoreBuilder threadPool(int maxThreads, int queueCapacity) {
+        if (executor != null) {
+            throw new IllegalStateException("Can not combine threadPool() with executor()");
+        }
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("Max threads must be >= 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be >= 1");
+        }
+        this.threadPoolMaxThreads = maxThreads;
+        this.threadPoolQueueCapacity = queueCapacity;
+        return this;
+    }
+
     /**
      * Let's you specify an DB file to be used during initial start of the app (no DB file exists yet).
      */
@@ -513,9 +641,18 @@ public class BoxStoreBuilder {
             directory = getDbDir(baseDirectory, name);
         }
         checkProvisionInitialDbFile();
+        int effectiveMaxReaders = getEffectiveMaxReaders();
+        if (readTxPoolSize > effectiveMaxReaders) {
+            throw new IllegalArgumentException("Read TX pool size " + readTxPoolSize
+                    + " exceeds max readers " + effectiveMaxReaders);
+        }
         return new BoxStore(this);
     }
 
+    int getEffectiveMaxReaders() {
+        return maxReaders > 0 ? maxReaders : DEFAULT_MAX_READERS;
+    }
+
     private void checkProvisionInitialDbFile() {
         if (initialDbFileFactory != null) {
             String dataDir = BoxStore.getCanonicalPath(directory);
@@ -19,11 +19,14 @@ package io.objectbox;
 import io.objectbox.annotation.apihint.Beta;
 import io.objectbox.annotation.apihint.Internal;
 import io.objectbox.internal.CursorFactory;
+import io.objectbox.internal.NativeResourceTracker;
 import io.objectbox.relation.ToMany;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @SuppressWarnings({"unchecked", "SameParameterValue", "unused", "WeakerAccess", "UnusedReturnValue"})
@@ -41,7 +44,7 @@ public abstract class Cursor<T> implements Closeable {
     protected static final int PUT_FLAG_FIRST = 1;
     protected static final int PUT_FLAG_COMPLETE = 1 << 1;
 
-    native void nativeDestroy(long cursor);
+    static native void nativeDestroy(long cursor);
 
     static native boolean nativeDeleteEntity(long cursor, long key);
 
@@ -140,6 +143,8 @@ public abstract class Cursor<T> implements Closeable {
     protected boolean closed;
 
     private final Throwable creationThrowable;
+    /** Releases the native cursor if this is not closed. */
+    private final NativeResourceTracker.Registration trackerRegistration;
 
     protected Cursor(Transaction tx, long cursor, EntityInfo<T> entityInfo, BoxStore boxStore) {
         if (tx == null) {
@@ -150,6 +155,10 @@ public abstract class Cursor<T> implements Closeable {
         this.cursor = cursor;
         this.entityInfo = entityInfo;
         this.boxStoreForEntities = boxStore;
+        creationThrowable = TRACK_CREATION_STACK ? new Throwable() : null;
+        // By default only complain about write cursors.
+        trackerRegistration = NativeResourceTracker.getInstance().register(this, "Cursor", cursor,
+                nativeReleaser(tx.getStore()), !readOnly || LOG_READ_NOT_CLOSED, creationThrowable);
 
         Property<T>[] allProperties = entityInfo.getAllProperties();
         for (Property<T> property : allProperties) {
@@ -158,36 +167,54 @@ public abstract class Cursor<T> implements Closeable {
                 property.verifyId(id);
             }
         }
-        creationThrowable = TRACK_CREATION_STACK ? new Throwable() : null;
 
         nativeSetBoxStoreForEntities(cursor, boxStore);
     }
 
-    /**
-     * Explicitly call {@link #close()} instead to avoid expensive finalization.
-     */
-    @SuppressWarnings("deprecation") // finalize()
-    @Override
-    protected void finalize() throws Throwable {
-        if (!closed) {
-            // By default only complain about write cursors
-            if (!readOnly || LOG_READ_NOT_CLOSED) {
-                System.err.println("Cursor was not closed.");
-                if (creationThrowable != null) {
-                    System.err.println("Cursor was initially created here:");
-                    creationThrowable.printStackTrace();
-                }
-                System.err.flush();
+    /** Static, so the releaser does not reference a cursor. */
+    private static NativeResourceTracker.NativeReleaser nativeReleaser(BoxStore store) {
+        return handle -> {
+            // See close().
+            if (!store.isClosed()) {
+                nativeDestroy(handle);
             }
-            close();
-            super.finalize();
-        }
+        };
     }
 
     protected abstract long getId(T entity);
 
     public abstract long put(T entity);
 
+    /**
+     * Puts the given objects and records them as changed, used by {@link Box#put(Collection)}.
+     *
+     * @return the count of objects put.
+     */
+    int putBatch(Collection<T> entities) {
+        int count = 0;
+        for (T entity : entities) {
+            trackChanged(put(entity));
+            count++;
+        }
+        return count;
+    }
+
+    /** Records the object ID as changed if the TX records changes, see {@link ObjectChanges}. */
+    void trackChanged(long id) {
+        TxChanges changes = tx.changes;
+        if (changes != null) {
+            changes.recordChanged(entityInfo.getEntityClass(), id);
+        }
+    }
+
+    /** Notes that objects changed which are not recorded by ID, see {@link ObjectChanges#isComplete()}. */
+    void trackChangesIncomplete() {
+        TxChanges changes = tx.changes;
+        if (changes != null) {
+            changes.markIncomplete(entityInfo.getEntityClass());
+        }
+    }
+
     public EntityInfo<T> getEntityInfo() {
         return entityInfo;
     }
@@ -196,6 +223,18 @@ public abstract class Cursor<T> implements Closeable {
         return (T) nativeGetEntity(cursor, key);
     }
 
+    /** Gets the objects for the given keys (IDs), skipping keys for which no object exists. */
+    List<T> getBatch(long[] keys) {
+        List<T> list = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            T entity = get(key);
+            if (entity != null) {
+                list.add(entity);
+            }
+        }
+        return list;
+    }
+
     public T next() {
         return (T) nativeNextEntity(cursor);
     }
@@ -210,10 +249,18 @@ public abstract class Cursor<T> implements Closeable {
     }
 
     public boolean deleteEntity(long key) {
-        return nativeDeleteEntity(cursor, key);
+        boolean removed = nativeDeleteEntity(cursor, key);
+        if (removed) {
+            TxChanges changes = tx.changes;
+            if (changes != null) {
+                changes.recordRemoved(entityInfo.getEntityClass(), key);
+            }
+        }
+        return removed;
     }
 
     public void deleteAll() {
+        trackChangesIncomplete();
         nativeDeleteAll(cursor);
     }
 
@@ -230,8 +277,7 @@ public abstract class Cursor<T> implements Closeable {
         if (!closed) {
             // Closeable recommendation: mark as closed before nativeDestroy could throw.
             closed = true;
-            // tx is null despite check in constructor in some tests (called by finalizer):
-            // Null check avoids NPE in finalizer and seems to stabilize Android instrumentation perf tests.
+            trackerRegistration.unregister();
             if (tx != null && !tx.getStore().isClosed()) {
                 nativeDestroy(cursor);
             }
@@ -319,11 +365,13 @@ public abstract class Cursor<T> implements Closeable {
 
     @Internal
     public void modifyRelations(int relationId, long key, long[] targetKeys, boolean remove) {
+        trackChanged(key);
         nativeModifyRelations(cursor, relationId, key, targetKeys, remove);
     }
 
     @Internal
     public void modifyRelationsSingle(int relationId, long key, long targetKey, boolean remove) {
+        trackChanged(key);
         nativeModifyRelationsSingle(cursor, relationId, key, targetKey, remove);
     }
 
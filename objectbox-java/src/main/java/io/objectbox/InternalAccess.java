@@ -40,6 +40,17 @@ public class InternalAccess {
         return tx;
     }
 
+    /** True if the current thread has an active (open) transaction for the given store. */
+    public static boolean hasActiveTx(BoxStore boxStore) {
+        Transaction tx = boxStore.activeTx.get();
+        return tx != null && !tx.isClosed();
+    }
+
+    /** True if the property is flagged unsigned in the model of the given store. */
+    public static boolean isUnsigned(BoxStore boxStore, Property<?> property) {
+        return boxStore.isUnsigned(property);
+    }
+
     public static long getHandle(Cursor reader) {
         return reader.internalHandle();
     }
@@ -68,6 +79,11 @@ public class InternalAccess {
         return box.getActiveTxCursor().internalHandle();
     }
 
+    /** Records a put done by relations, see {@link ObjectChanges}. */
+    public static <T> void trackChanged(Cursor<T> cursor, long id) {
+        cursor.trackChanged(id);
+    }
+
     public static <T> void releaseWriter(Box<T> box, Cursor<T> writer) {
         box.releaseWriter(writer);
     }
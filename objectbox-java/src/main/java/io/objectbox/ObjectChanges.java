@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox;
+
+/**
+ * Describes the changes a committed transaction made to objects of one entity type.
+ * Delivered to observers subscribed via {@link BoxStore#subscribeChanges(Class)}.
+ * <p>
+ * Changes are tracked on the Java side for puts and removes done via {@link Box} and relations.
+ * For operations that do not report individual objects (e.g. {@link Box#removeAll()},
+ * {@link io.objectbox.query.Query#remove()} or changes not made by this process' Java API), {@link #isComplete()}
+ * is false: any object of this entity type may have changed and the given IDs are just a subset.
+ */
+public class ObjectChanges {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final int entityTypeId;
+    private final Class<?> entityClass;
+    private final long[] changedIds;
+    private final long[] removedIds;
+    private final boolean complete;
+
+    ObjectChanges(int entityTypeId, Class<?> entityClass, long[] changedIds, long[] removedIds, boolean complete) {
+        this.entityTypeId = entityTypeId;
+        this.entityClass = entityClass;
+        this.changedIds = changedIds;
+        this.removedIds = removedIds;
+        this.complete = complete;
+    }
+
+    /** Changes without known IDs, e.g. to deliver to a new subscriber. */
+    static ObjectChanges unknown(int entityTypeId, Class<?> entityClass) {
+        return new ObjectChanges(entityTypeId, entityClass, EMPTY, EMPTY, false);
+    }
+
+    /**
+     * The entity type ID; use methods like {@link BoxStore#getEntityTypeIdOrThrow} to map with classes.
+     */
+    public int getEntityTypeId() {
+        return entityTypeId;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * IDs of objects that have been changed; e.g. have been put/updated/inserted. Sorted ascending.
+     */
+    public long[] getChangedIds() {
+        return changedIds;
+    }
+
+    /**
+     * IDs of objects that have been removed. Sorted ascending.
+     */
+    public long[] getRemovedIds() {
+        return removedIds;
+    }
+
+    /**
+     * True if the changed and removed IDs are all objects of this type that changed in the transaction.
+     * If false, other objects of this type may have changed as well.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectChanges{" + entityClass.getSimpleName()
+                + ", changed=" + changedIds.length
+                + ", removed=" + removedIds.length
+                + ", complete=" + complete + "}";
+    }
+}
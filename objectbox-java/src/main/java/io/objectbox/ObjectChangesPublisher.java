@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.annotation.apihint.Internal;
+import io.objectbox.reactive.DataObserver;
+import io.objectbox.reactive.DataPublisher;
+
+/**
+ * A {@link DataPublisher} that notifies {@link DataObserver}s about {@link ObjectChanges} of committed transactions.
+ * Like {@link ObjectClassPublisher}, observers are kept in an {@link ObserverRegistry} and publish requests are
+ * processed on a single thread, one at a time, in the order publishing was requested.
+ * <p>
+ * While there are observers, write transactions record changed object IDs (see {@link TxChanges}).
+ */
+@Internal
+class ObjectChangesPublisher implements DataPublisher<ObjectChanges>, Runnable {
+    final BoxStore boxStore;
+    final ObserverRegistry<ObjectChanges> observers;
+    private final Queue<PublishRequest> changesQueue = new ConcurrentLinkedQueue<>();
+    private static class PublishRequest {
+        @Nullable private final DataObserver<ObjectChanges> observer;
+        private final ObjectChanges[] changes;
+        PublishRequest(@Nullable DataObserver<ObjectChanges> observer, ObjectChanges[] changes) {
+            this.observer = observer;
+            this.changes = changes;
+        }
+    }
+    private final AtomicBoolean changePublisherRunning = new AtomicBoolean();
+    private volatile boolean hasObservers;
+
+    ObjectChangesPublisher(BoxStore boxStore) {
+        this.boxStore = boxStore;
+        this.observers = new ObserverRegistry<>(boxStore.getAllEntityTypeIds());
+    }
+
+    /** If true, write transactions should record changes. */
+    boolean hasObservers() {
+        return hasObservers;
+    }
+
+    @Override
+    public synchronized void subscribe(DataObserver<ObjectChanges> observer, @Nullable Object forClass) {
+        for (int entityTypeId : entityTypeIds(forClass)) {
+            observers.add(entityTypeId, observer);
+        }
+        hasObservers = true;
+    }
+
+    @Override
+    public synchronized void unsubscribe(DataObserver<ObjectChanges> observer, @Nullable Object forClass) {
+        for (int entityTypeId : entityTypeIds(forClass)) {
+            observers.remove(entityTypeId, observer);
+        }
+        hasObservers = !observers.isEmpty();
+    }
+
+    private int[] entityTypeIds(@Nullable Object forClass) {
+        return forClass != null
+                ? new int[]{boxStore.getEntityTypeIdOrThrow((Class<?>) forClass)}
+                : boxStore.getAllEntityTypeIds();
+    }
+
+    /**
+     * There is no "latest" data for changes: delivers changes without known IDs, so the observer treats all objects
+     * as potentially changed.
+     */
+    @Override
+    public void publishSingle(DataObserver<ObjectChanges> observer, @Nullable Object forClass) {
+        int[] entityTypeIds = entityTypeIds(forClass);
+        ObjectChanges[] changes = new ObjectChanges[entityTypeIds.length];
+        for (int i = 0; i < entityTypeIds.length; i++) {
+            changes[i] = ObjectChanges.unknown(entityTypeIds[i], boxStore.getEntityClassOrThrow(entityTypeIds[i]));
+        }
+        queuePublishRequestAndScheduleRun(observer, changes);
+    }
+
+    void publish(ObjectChanges[] changes) {
+        queuePublishRequestAndScheduleRun(null, changes);
+    }
+
+    /**
+     * Non-blocking: will just enqueue the changes for a separate thread.
+     */
+    private void queuePublishRequestAndScheduleRun(@Nullable DataObserver<ObjectChanges> observer,
+                                                   ObjectChanges[] changes) {
+        changesQueue.add(new PublishRequest(observer, changes));
+        // Only one thread at a time.
+        if (changePublisherRunning.compareAndSet(false, true)) {
+            boxStore.internalScheduleThread(this);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                PublishRequest request = changesQueue.poll();
+                if (request == null) {
+                    changePublisherRunning.set(false);
+                    // See ObjectClassPublisher: continue if a request was queued meanwhile without scheduling a run.
+                    if (changesQueue.isEmpty() || !changePublisherRunning.compareAndSet(false, true)) {
+                        break;
+                    }
+                    continue;
+                }
+
+                for (ObjectChanges changes : request.changes) {
+                    // If no specific observer specified, notify all current observers.
+                    DataObserver<ObjectChanges>[] observersToNotify = request.observer != null
+                            ? ObserverRegistry.single(request.observer)
+                            : observers.get(changes.getEntityTypeId());
+                    try {
+                        for (DataObserver<ObjectChanges> observer : observersToNotify) {
+                            observer.onData(changes);
+                        }
+                    } catch (RuntimeException e) {
+                        RuntimeException newEx = new RuntimeException("Observer failed while processing " + changes
+                                + ". Consider using an ErrorObserver", e);
+                        // So it won't be swallowed by thread pool
+                        newEx.printStackTrace();
+                        throw newEx;
+                    }
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            // Reset, otherwise this publisher can no longer publish.
+            changePublisherRunning.set(false);
+            throw e;
+        }
+    }
+}
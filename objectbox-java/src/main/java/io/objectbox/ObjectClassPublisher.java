@@ -16,21 +16,15 @@
 
 package io.objectbox;
 
-import org.greenrobot.essentials.collections.MultimapSet;
-import org.greenrobot.essentials.collections.MultimapSet.SetType;
-
-import java.util.ArrayDeque;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Deque;
-import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nullable;
 
 import io.objectbox.annotation.apihint.Internal;
 import io.objectbox.reactive.DataObserver;
 import io.objectbox.reactive.DataPublisher;
-import io.objectbox.reactive.DataPublisherUtils;
 import io.objectbox.reactive.SubscriptionBuilder;
 
 /**
@@ -38,13 +32,16 @@ import io.objectbox.reactive.SubscriptionBuilder;
  * Publishing is requested when a subscription is {@link SubscriptionBuilder#observer(DataObserver) observed} and
  * then by {@link BoxStore} for each {@link BoxStore#txCommitted(Transaction, int[]) txCommitted}.
  * Publish requests are processed on a single thread, one at a time, in the order publishing was requested.
+ * <p>
+ * Observers are kept in an {@link ObserverRegistry} indexed by entity type ID and publish requests are queued in a
+ * lock-free queue, so committing threads never block on this publisher.
  */
 @SuppressWarnings("rawtypes")
 @Internal
 class ObjectClassPublisher implements DataPublisher<Class>, Runnable {
     final BoxStore boxStore;
-    final MultimapSet<Integer, DataObserver<Class>> observersByEntityTypeId = MultimapSet.create(SetType.THREAD_SAFE);
-    private final Deque<PublishRequest> changesQueue = new ArrayDeque<>();
+    final ObserverRegistry<Class> observers;
+    private final Queue<PublishRequest> changesQueue = new ConcurrentLinkedQueue<>();
     private static class PublishRequest {
         @Nullable private final DataObserver<Class> observer;
         private final int[] entityTypeIds;
@@ -53,21 +50,22 @@ class ObjectClassPublisher implements DataPublisher<Class>, Runnable {
             this.entityTypeIds = entityTypeIds;
         }
     }
-    volatile boolean changePublisherRunning;
+    private final AtomicBoolean changePublisherRunning = new AtomicBoolean();
 
     ObjectClassPublisher(BoxStore boxStore) {
         this.boxStore = boxStore;
+        this.observers = new ObserverRegistry<>(boxStore.getAllEntityTypeIds());
     }
 
     @Override
     public void subscribe(DataObserver<Class> observer, @Nullable Object forClass) {
         if (forClass == null) {
             for (int entityTypeId : boxStore.getAllEntityTypeIds()) {
-                observersByEntityTypeId.putElement(entityTypeId, observer);
+                observers.add(entityTypeId, observer);
             }
         } else {
             int entityTypeId = boxStore.getEntityTypeIdOrThrow((Class<?>) forClass);
-            observersByEntityTypeId.putElement(entityTypeId, observer);
+            observers.add(entityTypeId, observer);
         }
     }
 
@@ -78,19 +76,14 @@ class ObjectClassPublisher implements DataPublisher<Class>, Runnable {
     public void unsubscribe(DataObserver<Class> observer, @Nullable Object forClass) {
         if (forClass != null) {
             int entityTypeId = boxStore.getEntityTypeIdOrThrow((Class<?>) forClass);
-            unsubscribe(observer, entityTypeId);
+            observers.remove(entityTypeId, observer);
         } else {
             for (int entityTypeId : boxStore.getAllEntityTypeIds()) {
-                unsubscribe(observer, entityTypeId);
+                observers.remove(entityTypeId, observer);
             }
         }
     }
 
-    private void unsubscribe(DataObserver<Class> observer, int entityTypeId) {
-        Set<DataObserver<Class>> observers = observersByEntityTypeId.get(entityTypeId);
-        DataPublisherUtils.removeObserverFromCopyOnWriteSet(observers, observer);
-    }
-
     @Override
     public void publishSingle(DataObserver<Class> observer, @Nullable Object forClass) {
         int[] entityTypeIds = forClass != null
@@ -107,13 +100,10 @@ class ObjectClassPublisher implements DataPublisher<Class>, Runnable {
      * Non-blocking: will just enqueue the changes for a separate thread.
      */
     private void queuePublishRequestAndScheduleRun(@Nullable DataObserver<Class> observer, int[] entityTypeIds) {
-        synchronized (changesQueue) {
-            changesQueue.add(new PublishRequest(observer, entityTypeIds));
-            // Only one thread at a time.
-            if (!changePublisherRunning) {
-                changePublisherRunning = true;
-                boxStore.internalScheduleThread(this);
-            }
+        changesQueue.add(new PublishRequest(observer, entityTypeIds));
+        // Only one thread at a time.
+        if (changePublisherRunning.compareAndSet(false, true)) {
+            boxStore.internalScheduleThread(this);
         }
     }
 
@@ -127,27 +117,29 @@ class ObjectClassPublisher implements DataPublisher<Class>, Runnable {
     public void run() {
         try {
             while (true) {
-                PublishRequest request;
-                synchronized (changesQueue) {
-                    request = changesQueue.pollFirst();
-                    if (request == null) {
-                        changePublisherRunning = false;
+                PublishRequest request = changesQueue.poll();
+                if (request == null) {
+                    changePublisherRunning.set(false);
+                    // A request may have been queued after polling, but before resetting the flag:
+                    // its producer did not schedule a run, so continue if no other run was scheduled since.
+                    if (changesQueue.isEmpty() || !changePublisherRunning.compareAndSet(false, true)) {
                         break;
                     }
+                    continue;
                 }
 
                 for (int entityTypeId : request.entityTypeIds) {
                     // If no specific observer specified, notify all current observers.
-                    Collection<DataObserver<Class>> observers = request.observer != null
-                            ? Collections.singletonList(request.observer)
-                            : observersByEntityTypeId.get(entityTypeId);
-                    if (observers == null || observers.isEmpty()) {
+                    DataObserver<Class>[] observersToNotify = request.observer != null
+                            ? ObserverRegistry.single(request.observer)
+                            : observers.get(entityTypeId);
+                    if (observersToNotify.length == 0) {
                         continue; // No observers for this entity type.
                     }
 
                     Class entityClass = boxStore.getEntityClassOrThrow(entityTypeId);
                     try {
-                        for (DataObserver<Class> observer : observers) {
+                        for (DataObserver<Class> observer : observersToNotify) {
                             observer.onData(entityClass);
                         }
                     } catch (RuntimeException e) {
@@ -155,9 +147,10 @@ class ObjectClassPublisher implements DataPublisher<Class>, Runnable {
                     }
                 }
             }
-        } finally {
-            // Just in Case of exceptions; it's better done within synchronized for regular cases
-            changePublisherRunning = false;
+        } catch (RuntimeException | Error e) {
+            // Reset, otherwise this publisher can no longer publish.
+            changePublisherRunning.set(false);
+            throw e;
         }
     }
 
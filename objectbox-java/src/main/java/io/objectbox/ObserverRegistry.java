@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.objectbox.annotation.apihint.Internal;
+import io.objectbox.reactive.DataObserver;
+import io.objectbox.reactive.DataPublisherUtils;
+
+/**
+ * Observers per entity type, indexed by entity type ID (which are small, dense integers).
+ * <p>
+ * Each slot holds an immutable array, which is replaced using compare-and-set when observers are added or removed
+ * (copy-on-write). Thus, getting the observers to notify is lock-free and does not allocate, while subscribing and
+ * unsubscribing (which happen much less frequently) copy the array.
+ */
+@Internal
+class ObserverRegistry<T> {
+
+    @SuppressWarnings("rawtypes")
+    private static final DataObserver[] NONE = new DataObserver[0];
+
+    private final AtomicReferenceArray<DataObserver<T>[]> observersByEntityTypeId;
+
+    @SuppressWarnings("unchecked")
+    ObserverRegistry(int[] entityTypeIds) {
+        int maxEntityTypeId = 0;
+        for (int entityTypeId : entityTypeIds) {
+            maxEntityTypeId = Math.max(maxEntityTypeId, entityTypeId);
+        }
+        observersByEntityTypeId = new AtomicReferenceArray<>(maxEntityTypeId + 1);
+        for (int i = 0; i <= maxEntityTypeId; i++) {
+            observersByEntityTypeId.set(i, (DataObserver<T>[]) NONE);
+        }
+    }
+
+    /** Returns the current observers for the given entity type; must not be modified. Never null. */
+    DataObserver<T>[] get(int entityTypeId) {
+        return observersByEntityTypeId.get(entityTypeId);
+    }
+
+    /** Returns an array with just the given observer, e.g. to notify it like the observers returned by get. */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic arrays can not be created; only holds DataObserver<T>.
+    static <T> DataObserver<T>[] single(DataObserver<T> observer) {
+        return new DataObserver[]{observer};
+    }
+
+    /** Adds the observer unless it (or an equal one) was already added. */
+    void add(int entityTypeId, DataObserver<T> observer) {
+        while (true) {
+            DataObserver<T>[] current = observersByEntityTypeId.get(entityTypeId);
+            for (DataObserver<T> existing : current) {
+                if (existing.equals(observer)) return;
+            }
+            DataObserver<T>[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = observer;
+            if (observersByEntityTypeId.compareAndSet(entityTypeId, current, updated)) return;
+        }
+    }
+
+    /**
+     * Removes the observer, also if wrapped, see {@link DataPublisherUtils#matchesObserver}.
+     */
+    @SuppressWarnings("unchecked")
+    void remove(int entityTypeId, DataObserver<T> observer) {
+        while (true) {
+            DataObserver<T>[] current = observersByEntityTypeId.get(entityTypeId);
+            DataObserver<T>[] updated = null;
+            int count = 0;
+            for (int i = 0; i < current.length; i++) {
+                DataObserver<T> candidate = current[i];
+                if (DataPublisherUtils.matchesObserver(candidate, observer)) {
+                    if (updated == null) {
+                        updated = Arrays.copyOf(current, current.length - 1);
+                        count = i;
+                    }
+                } else if (updated != null) {
+                    updated[count++] = candidate;
+                }
+            }
+            if (updated == null) return; // Not found.
+            if (count != updated.length) {
+                updated = count == 0 ? (DataObserver<T>[]) NONE : Arrays.copyOf(updated, count);
+            }
+            if (observersByEntityTypeId.compareAndSet(entityTypeId, current, updated)) return;
+        }
+    }
+
+    /** True if there is no observer for any entity type. */
+    boolean isEmpty() {
+        for (int i = 0; i < observersByEntityTypeId.length(); i++) {
+            if (observersByEntityTypeId.get(i).length != 0) return false;
+        }
+        return true;
+    }
+}
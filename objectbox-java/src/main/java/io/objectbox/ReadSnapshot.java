@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.objectbox.annotation.apihint.Experimental;
+
+/**
+ * A consistent read view of a {@link BoxStore} that can be shared by multiple threads, see
+ * {@link BoxStore#snapshot(int)}.
+ * <p>
+ * A snapshot pins read transactions that all see the same commit: all reads run using
+ * {@link #callInReadTx(Callable)} or {@link #runInReadTx(Runnable)} see the data as of the time the snapshot was
+ * created, no matter on which thread or how many commits happened since. Inside, use boxes and queries as usual;
+ * each thread gets its own cursors.
+ * <p>
+ * A read transaction can only be used by one thread at a time, so up to parallelism (as given when creating the
+ * snapshot) calls run at the same time; further calls wait until a transaction is available.
+ * <p>
+ * Reference counted: threads sharing a snapshot may {@link #retain()} it and must {@link #close()} it once done;
+ * the transactions are closed once the last reference is closed. Keep snapshots short-lived, as the database can not
+ * reuse space of data changed after the snapshot was created while it is open.
+ */
+@Experimental
+public class ReadSnapshot implements Closeable {
+
+    private final BoxStore store;
+    private final int commitCount;
+    private final BlockingQueue<Transaction> idleTxs;
+    /** Guarded by this. */
+    private int referenceCount = 1;
+
+    ReadSnapshot(BoxStore store, List<Transaction> transactions, int commitCount) {
+        this.store = store;
+        this.commitCount = commitCount;
+        this.idleTxs = new ArrayBlockingQueue<>(transactions.size(), false, transactions);
+    }
+
+    /**
+     * The commit count of the store when this snapshot was created. In race conditions, this may be lower than the
+     * commit count of the data seen, see {@link #isObsolete()}.
+     */
+    public int getCommitCount() {
+        return commitCount;
+    }
+
+    /** True if there were commits since this snapshot was created (false positives possible, see above). */
+    public boolean isObsolete() {
+        return commitCount != store.commitCount;
+    }
+
+    /**
+     * Adds a reference to this snapshot, e.g. before handing it to another thread; each reference must be closed.
+     *
+     * @throws IllegalStateException if this was closed already.
+     */
+    public synchronized ReadSnapshot retain() {
+        checkOpen();
+        referenceCount++;
+        return this;
+    }
+
+    private void checkOpen() {
+        // Must hold lock.
+        if (referenceCount == 0) {
+            throw new IllegalStateException("Snapshot is closed");
+        }
+    }
+
+    /**
+     * Like {@link BoxStore#callInReadTx(Callable)}, but reads the data of this snapshot. Waits if all transactions
+     * of this snapshot are in use by other threads.
+     */
+    public <T> T callInReadTx(Callable<T> callable) {
+        if (store.activeTx.get() != null) {
+            throw new IllegalStateException("Can not use a snapshot inside another transaction");
+        }
+        Transaction tx = checkOut();
+        try {
+            store.activeTx.set(tx);
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Callable threw exception", e);
+        } finally {
+            store.activeTx.remove();
+            // The TX is only used by one thread at a time, so these are cursors of this thread.
+            tx.readTxFinished();
+            checkIn(tx);
+        }
+    }
+
+    /** Like {@link BoxStore#runInReadTx(Runnable)}, but reads the data of this snapshot. */
+    public void runInReadTx(Runnable runnable) {
+        callInReadTx(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    private Transaction checkOut() {
+        try {
+            while (true) {
+                synchronized (this) {
+                    checkOpen();
+                }
+                // Wait in intervals to not wait forever if closed meanwhile.
+                Transaction tx = idleTxs.poll(100, TimeUnit.MILLISECONDS);
+                if (tx != null) {
+                    return tx;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a snapshot transaction", e);
+        }
+    }
+
+    private synchronized void checkIn(Transaction tx) {
+        if (referenceCount == 0) {
+            // Closed while in use.
+            tx.close();
+        } else {
+            idleTxs.add(tx);
+        }
+    }
+
+    /** Releases a reference; closes the read transactions once no references are left. */
+    @Override
+    public synchronized void close() {
+        if (referenceCount == 0) {
+            return;
+        }
+        if (--referenceCount == 0) {
+            Transaction tx;
+            while ((tx = idleTxs.poll()) != null) {
+                tx.close();
+            }
+        }
+    }
+
+    /** True if all references were closed. */
+    public synchronized boolean isClosed() {
+        return referenceCount == 0;
+    }
+}
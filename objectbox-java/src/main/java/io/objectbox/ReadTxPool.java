@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+import io.objectbox.annotation.apihint.Internal;
+import io.objectbox.exception.DbException;
+
+/**
+ * A bounded pool of recycled read transactions shared by all threads, see
+ * {@link BoxStoreBuilder#readTxPoolSize(int)}.
+ * <p>
+ * Without a pool, each thread keeps a recycled read transaction (and cursor) per {@link Box} in a thread local. This
+ * works well for a fixed set of threads, but with many short-lived threads (e.g. virtual threads) each read begins a
+ * new native transaction and takes a reader slot. Instead, a transaction is checked out for a read and checked in
+ * again once done, then recycled to be renewed by the next read on any thread (requires no reader thread locals).
+ * <p>
+ * At most maxSize transactions exist; further threads wait until one is checked in, so the reader slots of the store
+ * are never exhausted by the pool. Cursors created by {@link Box} for a pooled transaction stay with it, see
+ * {@link Transaction#getPooledCursor(Class)}.
+ */
+@Internal
+class ReadTxPool {
+
+    private final BoxStore store;
+    private final int maxSize;
+    private final Semaphore permits;
+    /** Recycled transactions, most recently checked in first. */
+    private final ConcurrentLinkedDeque<Transaction> idle = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed;
+
+    ReadTxPool(BoxStore store, int maxSize) {
+        this.store = store;
+        this.maxSize = maxSize;
+        permits = new Semaphore(maxSize, true);
+    }
+
+    /** Checks out a renewed read transaction, waiting until one is available; must be checked in again. */
+    Transaction checkOut() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DbException("Interrupted while waiting for a pooled read transaction");
+        }
+        Transaction tx = null;
+        try {
+            tx = idle.pollFirst();
+            if (tx != null) {
+                tx.renewPooled();
+            } else {
+                tx = store.beginReadTx();
+                tx.pooled = true;
+            }
+            return tx;
+        } catch (RuntimeException e) {
+            if (tx != null) {
+                tx.close();
+            }
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Checks in a transaction previously checked out, recycling it for the next check out. */
+    void checkIn(Transaction tx) {
+        try {
+            if (closed || tx.isClosed()) {
+                tx.closePooled();
+            } else {
+                tx.recycle();
+                idle.offerFirst(tx);
+                if (closed) {
+                    closeIdle(); // Raced with close().
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Closes recycled transactions; transactions checked out are closed when checked in. */
+    void close() {
+        closed = true;
+        closeIdle();
+    }
+
+    private void closeIdle() {
+        Transaction tx;
+        while ((tx = idle.pollFirst()) != null) {
+            tx.closePooled();
+        }
+    }
+
+    /** Number of transactions currently checked out. */
+    int getCheckedOutCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /** Number of recycled transactions ready to be checked out. */
+    int getIdleCount() {
+        return idle.size();
+    }
+}
@@ -17,13 +17,21 @@
 package io.objectbox;
 
 import java.io.Closeable;
-
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import io.objectbox.annotation.apihint.Experimental;
 import io.objectbox.annotation.apihint.Internal;
 import io.objectbox.exception.DbException;
 import io.objectbox.internal.CursorFactory;
+import io.objectbox.internal.NativeResourceTracker;
 
 @Internal
 @NotThreadSafe
@@ -37,13 +45,36 @@ public class Transaction implements Closeable {
     private final BoxStore store;
     private final boolean readOnly;
     private final Throwable creationThrowable;
+    /** Releases the native transaction if this is not closed. */
+    private final NativeResourceTracker.Registration trackerRegistration;
 
     private int initialCommitCount;
 
-    /** volatile because finalizer thread may interfere with "one thread, one TX" rule */
+    /** Entry of the {@link TransactionRegistry} of the store. */
+    @Nullable WeakReference<Transaction> registryEntry;
+
+    /**
+     * Boxes that created their active TX cursor for this transaction, so only these are notified when this is
+     * committed or finished; null until the first. Only accessed by the thread owning this transaction.
+     */
+    @Nullable private List<Box<?>> boxesWithActiveTxCursor;
+
+    /** Set for read transactions of a {@link ReadTxPool}, which may be used by any thread. */
+    boolean pooled;
+
+    /** Set for the transaction of a {@link ReadSnapshot}, which may be used by any thread. */
+    boolean snapshot;
+
+    /** Cursors of a pooled transaction by entity class; kept while the transaction is recycled. */
+    @Nullable private Map<Class<?>, Cursor<?>> pooledCursors;
+
+    /** Set for write transactions if changed object IDs should be recorded. */
+    @Nullable TxChanges changes;
+
+    /** volatile because close() may be called by another thread, e.g. when closing the store */
     private volatile boolean closed;
 
-    native void nativeDestroy(long transaction);
+    static native void nativeDestroy(long transaction);
 
     native int[] nativeCommit(long transaction);
 
@@ -76,16 +107,19 @@ public class Transaction implements Closeable {
         readOnly = nativeIsReadOnly(transaction);
 
         creationThrowable = TRACK_CREATION_STACK ? new Throwable() : null;
+        // By default only complain about write transactions.
+        trackerRegistration = NativeResourceTracker.getInstance().register(this, "Transaction", transaction,
+                nativeReleaser(store), !readOnly || creationThrowable != null, creationThrowable);
     }
 
-    /**
-     * Explicitly call {@link #close()} instead to avoid expensive finalization.
-     */
-    @SuppressWarnings("deprecation") // finalize()
-    @Override
-    protected void finalize() throws Throwable {
-        close();
-        super.finalize();
+    /** Static, so the releaser does not reference a transaction. */
+    private static NativeResourceTracker.NativeReleaser nativeReleaser(BoxStore store) {
+        return handle -> {
+            // See close().
+            if (!store.isClosed()) {
+                nativeDestroy(handle);
+            }
+        };
     }
 
     void checkOpen() {
@@ -99,9 +133,11 @@ public class Transaction implements Closeable {
         if (!closed) {
             // Closeable recommendation: mark as closed before any code that might throw.
             closed = true;
+            trackerRegistration.unregister();
             store.unregisterTransaction(this);
 
-            if (!nativeIsOwnerThread(transaction)) {
+            // Pooled transactions are used by any thread.
+            if (!pooled && !snapshot && !nativeIsOwnerThread(transaction)) {
                 boolean isActive = nativeIsActive(transaction);
                 boolean isRecycled = nativeIsRecycled(transaction);
                 if (isActive || isRecycled) {
@@ -110,7 +146,7 @@ public class Transaction implements Closeable {
                         System.err.println("Transaction is still active" + msgPostfix);
                     } else {
                         // This is not uncommon when using Box; as it keeps a thread-local Cursor and recycles the TX
-                        System.out.println("Hint: use closeThreadResources() to avoid finalizing recycled transactions"
+                        System.out.println("Hint: use closeThreadResources() to avoid closing recycled transactions from other threads"
                                 + msgPostfix);
                         System.out.flush();
                     }
@@ -188,6 +224,67 @@ public class Transaction implements Closeable {
         return factory.createCursor(this, cursorHandle, store);
     }
 
+    /** Returns the cursor for the given entity class of this pooled transaction, creating it if needed. */
+    @SuppressWarnings("unchecked")
+    <T> Cursor<T> getPooledCursor(Class<T> entityClass) {
+        if (pooledCursors == null) {
+            pooledCursors = new HashMap<>();
+        }
+        Cursor<T> cursor = (Cursor<T>) pooledCursors.get(entityClass);
+        if (cursor == null) {
+            cursor = createCursor(entityClass);
+            pooledCursors.put(entityClass, cursor);
+        }
+        return cursor;
+    }
+
+    /** Renews this recycled pooled transaction and its cursors. */
+    void renewPooled() {
+        renew();
+        if (pooledCursors != null) {
+            for (Cursor<?> cursor : pooledCursors.values()) {
+                cursor.renew();
+            }
+        }
+    }
+
+    /** Closes the cursors of this pooled transaction and then this. */
+    void closePooled() {
+        if (pooledCursors != null) {
+            for (Cursor<?> cursor : pooledCursors.values()) {
+                cursor.close();
+            }
+            pooledCursors = null;
+        }
+        close();
+    }
+
+    void addBoxWithActiveTxCursor(Box<?> box) {
+        if (boxesWithActiveTxCursor == null) {
+            boxesWithActiveTxCursor = new ArrayList<>(4);
+        } else if (boxesWithActiveTxCursor.contains(box)) {
+            return;
+        }
+        boxesWithActiveTxCursor.add(box);
+    }
+
+    List<Box<?>> getBoxesWithActiveTxCursor() {
+        return boxesWithActiveTxCursor != null ? boxesWithActiveTxCursor : Collections.emptyList();
+    }
+
+    /**
+     * Lets all boxes that have a cursor for this TX release it and forgets them, as pooled and snapshot TXs are
+     * reused by following calls.
+     */
+    void readTxFinished() {
+        if (boxesWithActiveTxCursor != null) {
+            for (Box<?> box : boxesWithActiveTxCursor) {
+                box.readTxFinished(this);
+            }
+            boxesWithActiveTxCursor.clear();
+        }
+    }
+
     public BoxStore getStore() {
         return store;
     }
@@ -210,6 +307,11 @@ public class Transaction implements Closeable {
         return readOnly;
     }
 
+    /** The commit count of the store when this transaction was started (or last renewed). */
+    int getInitialCommitCount() {
+        return initialCommitCount;
+    }
+
     /**
      * Indicates if data returned from this transaction may be obsolete (another write TX was committed after this
      * transaction was started).
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.objectbox.annotation.apihint.Internal;
+
+/**
+ * Weakly references the open transactions of a {@link BoxStore}, so they can be closed along with the store.
+ * <p>
+ * Registering and unregistering happens for every transaction on any thread, so this avoids a global lock:
+ * entries are kept in a concurrent set. The entry of a transaction is a {@link WeakReference} stored in the
+ * transaction, so it can be removed without a lookup by identity. Entries of transactions that were garbage
+ * collected without being closed are removed when registering.
+ */
+@Internal
+class TransactionRegistry {
+
+    private final Set<WeakReference<Transaction>> entries = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<Transaction> collected = new ReferenceQueue<>();
+
+    void register(Transaction tx) {
+        expungeCollected();
+        WeakReference<Transaction> entry = new WeakReference<>(tx, collected);
+        tx.registryEntry = entry;
+        entries.add(entry);
+    }
+
+    void unregister(Transaction tx) {
+        WeakReference<Transaction> entry = tx.registryEntry;
+        if (entry != null) {
+            entries.remove(entry);
+        }
+    }
+
+    private void expungeCollected() {
+        Reference<? extends Transaction> entry;
+        while ((entry = collected.poll()) != null) {
+            //noinspection SuspiciousMethodCalls Same type, the queue just uses a wildcard.
+            entries.remove(entry);
+        }
+    }
+
+    /** Returns the currently registered transactions that were not garbage collected. */
+    List<Transaction> getTransactions() {
+        List<Transaction> transactions = new ArrayList<>(entries.size());
+        for (WeakReference<Transaction> entry : entries) {
+            Transaction tx = entry.get();
+            if (tx != null) {
+                transactions.add(tx);
+            }
+        }
+        return transactions;
+    }
+
+    /** Number of registered entries, may include transactions garbage collected recently. */
+    int size() {
+        return entries.size();
+    }
+}
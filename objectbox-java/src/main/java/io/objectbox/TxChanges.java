@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.collect.LongArrayList;
+
+/**
+ * Records IDs of objects put and removed in a write {@link Transaction} per entity class.
+ * Only enabled if there are {@link ObjectChanges} observers; not thread-safe like the transaction itself.
+ */
+class TxChanges {
+
+    private static class EntityTypeChanges {
+        final LongArrayList changedIds = new LongArrayList(8);
+        final LongArrayList removedIds = new LongArrayList(8);
+        boolean incomplete;
+    }
+
+    private final Map<Class<?>, EntityTypeChanges> changesByClass = new IdentityHashMap<>();
+    // Puts typically come in runs of the same class, so cache the last lookup.
+    @Nullable private Class<?> lastClass;
+    @Nullable private EntityTypeChanges lastChanges;
+
+    private EntityTypeChanges get(Class<?> entityClass) {
+        if (entityClass == lastClass) {
+            //noinspection ConstantConditions Set together with lastClass.
+            return lastChanges;
+        }
+        EntityTypeChanges changes = changesByClass.get(entityClass);
+        if (changes == null) {
+            changes = new EntityTypeChanges();
+            changesByClass.put(entityClass, changes);
+        }
+        lastClass = entityClass;
+        lastChanges = changes;
+        return changes;
+    }
+
+    void recordChanged(Class<?> entityClass, long id) {
+        get(entityClass).changedIds.add(id);
+    }
+
+    void recordRemoved(Class<?> entityClass, long id) {
+        get(entityClass).removedIds.add(id);
+    }
+
+    /** Changes were made that can not be recorded by ID, e.g. removing all objects. */
+    void markIncomplete(Class<?> entityClass) {
+        get(entityClass).incomplete = true;
+    }
+
+    /**
+     * Builds changes for the affected entity types reported by the commit; types without recorded changes
+     * (changed without the Java API knowing) are reported as incomplete.
+     */
+    ObjectChanges[] toObjectChanges(BoxStore store, int[] entityTypeIdsAffected) {
+        ObjectChanges[] result = new ObjectChanges[entityTypeIdsAffected.length];
+        for (int i = 0; i < entityTypeIdsAffected.length; i++) {
+            int entityTypeId = entityTypeIdsAffected[i];
+            Class<?> entityClass = store.getEntityClassOrThrow(entityTypeId);
+            EntityTypeChanges changes = changesByClass.get(entityClass);
+            if (changes == null) {
+                result[i] = ObjectChanges.unknown(entityTypeId, entityClass);
+            } else {
+                long[] removedIds = sortedDistinct(changes.removedIds);
+                // An object put, then removed in the same TX is just removed.
+                long[] changedIds = sortedDifference(sortedDistinct(changes.changedIds),
+                        removedIds);
+                result[i] = new ObjectChanges(entityTypeId, entityClass, changedIds, removedIds,
+                        !changes.incomplete);
+            }
+        }
+        return result;
+    }
+
+    static long[] sortedDistinct(LongArrayList ids) {
+        long[] sorted = ids.toArray();
+        Arrays.sort(sorted);
+        int count = sorted.length;
+        int distinctCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinctCount == 0 || sorted[distinctCount - 1] != sorted[i]) {
+                sorted[distinctCount++] = sorted[i];
+            }
+        }
+        return distinctCount == count ? sorted : Arrays.copyOf(sorted, distinctCount);
+    }
+
+    /** Returns IDs of a (sorted) not contained in b (sorted). */
+    static long[] sortedDifference(long[] a, long[] b) {
+        if (b.length == 0) return a;
+        long[] result = new long[a.length];
+        int count = 0;
+        int bIndex = 0;
+        for (long id : a) {
+            while (bIndex < b.length && b[bIndex] < id) bIndex++;
+            if (bIndex == b.length || b[bIndex] != id) {
+                result[count++] = id;
+            }
+        }
+        return count == a.length ? a : Arrays.copyOf(result, count);
+    }
+}
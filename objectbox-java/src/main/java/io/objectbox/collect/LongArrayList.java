@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.collect;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive long values, e.g. object IDs. Not thread-safe.
+ */
+public class LongArrayList implements LongCollection {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] values;
+    private int size;
+
+    public LongArrayList() {
+        values = EMPTY;
+    }
+
+    public LongArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity must be >= 0");
+        }
+        values = initialCapacity == 0 ? EMPTY : new long[initialCapacity];
+    }
+
+    /** Creates a list containing a copy of the given values. */
+    public LongArrayList(long[] values) {
+        this.values = values.length == 0 ? EMPTY : values.clone();
+        this.size = values.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /** @return the previous value at the index. */
+    public long set(int index, long value) {
+        checkIndex(index);
+        long previous = values[index];
+        values[index] = value;
+        return previous;
+    }
+
+    public void add(long value) {
+        ensureCapacity(size + 1);
+        values[size++] = value;
+    }
+
+    public void addAll(long[] values) {
+        ensureCapacity(size + values.length);
+        System.arraycopy(values, 0, this.values, size, values.length);
+        size += values.length;
+    }
+
+    public void addAll(LongArrayList list) {
+        ensureCapacity(size + list.size);
+        System.arraycopy(list.values, 0, values, size, list.size);
+        size += list.size;
+    }
+
+    /** Removes the value at the given index, shifting following values to the left; returns the removed value. */
+    public long removeAt(int index) {
+        checkIndex(index);
+        long removed = values[index];
+        int moveCount = size - index - 1;
+        if (moveCount > 0) {
+            System.arraycopy(values, index + 1, values, index, moveCount);
+        }
+        size--;
+        return removed;
+    }
+
+    @Override
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    /** Returns the index of the first occurrence of the value or -1 if not contained. */
+    public int indexOf(long value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) return i;
+        }
+        return -1;
+    }
+
+    /** Removes all values; keeps the allocated capacity for reuse. */
+    public void clear() {
+        size = 0;
+    }
+
+    /** Sorts the values ascending. */
+    public void sort() {
+        Arrays.sort(values, 0, size);
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > values.length) {
+            int newCapacity = Math.max(minCapacity, Math.max(8, values.length + (values.length >> 1)));
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+    @Override
+    public long[] toArray() {
+        return size == 0 ? EMPTY : Arrays.copyOf(values, size);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LongArrayList)) return false;
+        LongArrayList other = (LongArrayList) o;
+        if (size != other.size) return false;
+        for (int i = 0; i < size; i++) {
+            if (values[i] != other.values[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            long value = values[i];
+            result = 31 * result + (int) (value ^ (value >>> 32));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(values[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
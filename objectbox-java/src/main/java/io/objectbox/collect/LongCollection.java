@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.collect;
+
+/**
+ * A collection of primitive long values, e.g. object IDs. Unlike a {@link java.util.Collection} of
+ * {@link Long}, values are not boxed.
+ *
+ * @see LongArrayList
+ * @see LongHashSet
+ */
+public interface LongCollection {
+
+    int size();
+
+    boolean isEmpty();
+
+    boolean contains(long value);
+
+    /** Returns a new array containing all values; in insertion order for lists, in no particular order for sets. */
+    long[] toArray();
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.collect;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive long values, e.g. object IDs. Like {@link LongObjectMap}, it uses open addressing with linear
+ * probing, so values are not boxed and entries are not allocated.
+ * <p>
+ * Not thread-safe.
+ */
+public class LongHashSet implements LongCollection {
+
+    private static final int MIN_CAPACITY = 8;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    // Value 0 is used to mark free slots, so it is tracked separately.
+    private long[] values;
+    private int mask;
+    private int size;
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of values that can be added without resizing.
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must be >= 0");
+        }
+        long minCapacity = (long) Math.ceil(expectedSize / LOAD_FACTOR);
+        int capacity = MIN_CAPACITY;
+        while (capacity < minCapacity) {
+            if (capacity >= 1 << 30) {
+                throw new IllegalArgumentException("Expected size too large: " + expectedSize);
+            }
+            capacity <<= 1;
+        }
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /** Creates a set containing the given values. */
+    public LongHashSet(long[] values) {
+        this(values.length);
+        addAll(values);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(long value) {
+        if (value == 0) return hasZero;
+        return indexOf(value) >= 0;
+    }
+
+    /** @return true if the value was not contained before. */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int index = LongObjectMap.hash(value) & mask;
+        while (true) {
+            long existing = values[index];
+            if (existing == 0) {
+                values[index] = value;
+                size++;
+                if (size > (mask + 1) * LOAD_FACTOR) {
+                    resize((mask + 1) << 1);
+                }
+                return true;
+            } else if (existing == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public void addAll(long[] values) {
+        for (long value : values) {
+            add(value);
+        }
+    }
+
+    /** @return true if the value was contained. */
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!hasZero) return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int index = indexOf(value);
+        if (index < 0) return false;
+        size--;
+        // Shift following values of the probe sequence back, see LongObjectMap.remove().
+        int free = index;
+        int next = (free + 1) & mask;
+        while (values[next] != 0) {
+            int ideal = LongObjectMap.hash(values[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - free) & mask)) {
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[free] = 0;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0);
+        hasZero = false;
+        size = 0;
+    }
+
+    @Override
+    public long[] toArray() {
+        long[] result = new long[size];
+        int count = 0;
+        if (hasZero) {
+            result[count++] = 0;
+        }
+        for (long value : values) {
+            if (value != 0) {
+                result[count++] = value;
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(long value) {
+        int index = LongObjectMap.hash(value) & mask;
+        while (true) {
+            long existing = values[index];
+            if (existing == value) return index;
+            if (existing == 0) return -1;
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldValues = values;
+        values = new long[newCapacity];
+        mask = newCapacity - 1;
+        for (long value : oldValues) {
+            if (value != 0) {
+                int index = LongObjectMap.hash(value) & mask;
+                while (values[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                values[index] = value;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LongHashSet{size=" + size + "}";
+    }
+}
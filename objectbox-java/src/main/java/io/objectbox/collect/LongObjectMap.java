@@ -0,0 +1,241 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.collect;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * A map with primitive long keys (e.g. object IDs) and object values, which may be null.
+ * Uses open addressing with linear probing, so keys are not boxed and entries are not allocated.
+ * <p>
+ * Not thread-safe.
+ *
+ * @param <V> The value type.
+ */
+public class LongObjectMap<V> {
+
+    /** Receives entries, see {@link #forEach(EntryConsumer)}. */
+    public interface EntryConsumer<V> {
+        void accept(long key, @Nullable V value);
+    }
+
+    private static final int MIN_CAPACITY = 8;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    // Key 0 is used to mark free slots, so an entry with key 0 is stored separately.
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private boolean hasZeroKey;
+    @Nullable private V zeroValue;
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of entries that can be put without resizing.
+     */
+    public LongObjectMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must be >= 0");
+        }
+        int capacity = tableSizeFor(expectedSize);
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long minCapacity = (long) Math.ceil(expectedSize / LOAD_FACTOR);
+        int capacity = MIN_CAPACITY;
+        while (capacity < minCapacity) {
+            if (capacity >= 1 << 30) {
+                throw new IllegalArgumentException("Expected size too large: " + expectedSize);
+            }
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) return hasZeroKey;
+        return indexOf(key) >= 0;
+    }
+
+    /** Returns the value for the given key, or null if there is none (or the value is null). */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public V get(long key) {
+        if (key == 0) return zeroValue;
+        int index = indexOf(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    /** @return the previous value for the key or null if there was none. */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public V put(long key, @Nullable V value) {
+        if (key == 0) {
+            V previous = zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int index = hash(key) & mask;
+        while (true) {
+            long existing = keys[index];
+            if (existing == 0) {
+                keys[index] = key;
+                values[index] = value;
+                size++;
+                if (size > (mask + 1) * LOAD_FACTOR) {
+                    resize((mask + 1) << 1);
+                }
+                return null;
+            } else if (existing == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /** @return the removed value or null if there was none. */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public V remove(long key) {
+        if (key == 0) {
+            V previous = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size--;
+            }
+            return previous;
+        }
+        int index = indexOf(key);
+        if (index < 0) return null;
+        V previous = (V) values[index];
+        size--;
+        // Shift following entries of the probe sequence back, so lookups do not stop at the freed slot.
+        int free = index;
+        int next = (free + 1) & mask;
+        while (keys[next] != 0) {
+            int ideal = hash(keys[next]) & mask;
+            // Move if the ideal slot is not within (free, next] (cyclically).
+            if (((next - ideal) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[free] = 0;
+        values[free] = null;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /** Returns a new array containing all keys, in no particular order. */
+    public long[] keys() {
+        long[] result = new long[size];
+        int count = 0;
+        if (hasZeroKey) {
+            result[count++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    /** Calls the consumer for each entry, in no particular order. */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    private int indexOf(long key) {
+        int index = hash(key) & mask;
+        while (true) {
+            long existing = keys[index];
+            if (existing == key) return index;
+            if (existing == 0) return -1;
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[newCapacity];
+        values = new Object[newCapacity];
+        mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int index = hash(key) & mask;
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LongObjectMap{size=" + size + "}";
+    }
+}
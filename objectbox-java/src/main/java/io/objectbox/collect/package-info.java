@@ -0,0 +1,23 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Collections specialized for primitive long keys and values, e.g. object IDs.
+ * Compared to JDK collections of {@link java.lang.Long}, they do not box IDs and thus allocate much less.
+ */
+@ParametersAreNonnullByDefault
+package io.objectbox.collect;
+
+import javax.annotation.ParametersAreNonnullByDefault;
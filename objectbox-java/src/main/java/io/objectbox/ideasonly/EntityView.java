@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.ideasonly;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.Property;
+
+/**
+ * Idea: a read-only flyweight view over the stored FlatBuffers data of an object, e.g. obtained via
+ * {@code Box.getView(id)} or iterated via {@code Query.findViews()}. Reading a few properties of many objects
+ * would then neither allocate entity objects nor decode properties that are not read.
+ * <p>
+ * A view would wrap a direct ByteBuffer pointing to the stored record (using
+ * {@link io.objectbox.flatbuffers.Table}), so it is only valid inside the read transaction it was obtained in and
+ * may be reset to another record while iterating. This requires native support to expose the record memory of a
+ * cursor; until then, {@code PropertyQuery} reads single properties without creating objects.
+ */
+public interface EntityView {
+
+    long getId();
+
+    boolean isNull(Property<?> property);
+
+    long getLong(Property<?> property);
+
+    int getInt(Property<?> property);
+
+    double getDouble(Property<?> property);
+
+    boolean getBoolean(Property<?> property);
+
+    /** Decodes the string; views could also offer comparing without decoding. */
+    @Nullable
+    String getString(Property<?> property);
+
+}
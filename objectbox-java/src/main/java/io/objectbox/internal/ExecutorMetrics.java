@@ -0,0 +1,31 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.objectbox.internal;
+
+import io.objectbox.annotation.apihint.Internal;
+
+/**
+ * Approximate load figures of the executor running background work of a {@link io.objectbox.BoxStore}.
+ */
+@Internal
+public interface ExecutorMetrics {
+    /** Number of tasks submitted, but not yet started. */
+    int getQueuedTaskCount();
+
+    /** Number of tasks currently running. */
+    int getActiveTaskCount();
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.internal;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.annotation.apihint.Internal;
+
+/**
+ * Releases native resources of objects that were not closed once they are garbage collected, replacing
+ * {@link Object#finalize()}: unlike with a finalizer, an object that is closed (the common case) is not kept alive
+ * for another GC cycle and not queued for the finalizer thread, its registration is just dropped.
+ * <p>
+ * Like {@code java.lang.ref.Cleaner} (not available on Java 8 and older Android versions), an object registers
+ * its native handle with a {@link NativeReleaser} that must not reference the object itself. A daemon thread waits
+ * for phantom reachable objects and releases their handle.
+ * <p>
+ * If a leak should be reported (e.g. for write transactions, or if a creation stack was recorded), a message and the
+ * stack trace where the object was created is printed when its handle is released.
+ */
+@Internal
+public final class NativeResourceTracker {
+
+    /** Releases a native handle; must not reference the object owning it, or it will never be collected. */
+    public interface NativeReleaser {
+        void release(long handle);
+    }
+
+    /** Registration of an object; call {@link #unregister()} once the native resource was released by close. */
+    public static final class Registration extends PhantomReference<Object> {
+        private final NativeResourceTracker tracker;
+        private final String typeName;
+        private final long handle;
+        private final NativeReleaser releaser;
+        private final boolean reportLeak;
+        @Nullable private final Throwable creationThrowable;
+
+        Registration(NativeResourceTracker tracker, Object owner, String typeName, long handle,
+                     NativeReleaser releaser, boolean reportLeak, @Nullable Throwable creationThrowable) {
+            super(owner, tracker.queue);
+            this.tracker = tracker;
+            this.typeName = typeName;
+            this.handle = handle;
+            this.releaser = releaser;
+            this.reportLeak = reportLeak;
+            this.creationThrowable = creationThrowable;
+        }
+
+        /** Stops tracking, e.g. because the owner was closed. */
+        public void unregister() {
+            tracker.registrations.remove(this);
+            clear();
+        }
+
+        void releaseLeaked() {
+            if (reportLeak) {
+                System.err.println(typeName + " was not closed.");
+                if (creationThrowable != null) {
+                    System.err.println(typeName + " was initially created here:");
+                    creationThrowable.printStackTrace();
+                }
+                System.err.flush();
+            }
+            releaser.release(handle);
+        }
+    }
+
+    private static final NativeResourceTracker INSTANCE = new NativeResourceTracker();
+
+    public static NativeResourceTracker getInstance() {
+        return INSTANCE;
+    }
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    /** Keeps registrations reachable until their owner was closed or collected. */
+    private final Set<Registration> registrations = ConcurrentHashMap.newKeySet();
+    private final AtomicLong leakedCount = new AtomicLong();
+    private volatile Thread releaseThread;
+
+    private NativeResourceTracker() {
+    }
+
+    /**
+     * Tracks the given owner until {@link Registration#unregister()} is called; if the owner is garbage collected
+     * before, the releaser is called with the given handle.
+     *
+     * @param reportLeak if a message should be printed when releasing a not closed owner.
+     * @param creationThrowable if not null, printed along with the message to show where the owner was created.
+     */
+    public Registration register(Object owner, String typeName, long handle, NativeReleaser releaser,
+                                 boolean reportLeak, @Nullable Throwable creationThrowable) {
+        if (releaseThread == null) {
+            startReleaseThread();
+        }
+        Registration registration = new Registration(this, owner, typeName, handle, releaser, reportLeak,
+                creationThrowable);
+        registrations.add(registration);
+        return registration;
+    }
+
+    private synchronized void startReleaseThread() {
+        if (releaseThread == null) {
+            Thread thread = new Thread(this::releaseLeaked, "ObjectBox-NativeResourceTracker");
+            thread.setDaemon(true);
+            thread.start();
+            releaseThread = thread;
+        }
+    }
+
+    private void releaseLeaked() {
+        //noinspection InfiniteLoopStatement Daemon thread.
+        while (true) {
+            Registration registration;
+            try {
+                registration = (Registration) queue.remove();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            // Not registered anymore if unregistered concurrently.
+            if (registrations.remove(registration)) {
+                leakedCount.incrementAndGet();
+                try {
+                    registration.releaseLeaked();
+                } catch (Throwable e) {
+                    System.err.println("Could not release native resource of " + registration.typeName);
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /** Number of objects currently tracked, i.e. neither closed nor released after being garbage collected. */
+    public int getTrackedCount() {
+        return registrations.size();
+    }
+
+    /** Number of objects that were not closed and whose native resources were released after garbage collection. */
+    public long getLeakedCount() {
+        return leakedCount.get();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.objectbox.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import io.objectbox.BoxStore;
+import io.objectbox.annotation.apihint.Internal;
+
+/**
+ * Runs background work of a {@link BoxStore} on an {@link Executor} supplied by the user, e.g. a bounded pool or
+ * a virtual thread per task executor. Like {@link ObjectBoxThreadPool}, thread local resources are released
+ * ({@link BoxStore#closeThreadResources()}) after each task.
+ * <p>
+ * The supplied executor is owned by the user: {@link #shutdown()} only stops accepting new tasks and
+ * {@link #awaitTermination(long, TimeUnit)} waits for tasks submitted through this service; the supplied executor
+ * is not shut down.
+ */
+@Internal
+public class ObjectBoxExecutorService extends AbstractExecutorService implements ExecutorMetrics {
+    private final BoxStore boxStore;
+    private final Executor executor;
+
+    private final Object lock = new Object();
+    private int queuedCount;
+    private int activeCount;
+    private boolean shutdown;
+
+    public ObjectBoxExecutorService(BoxStore boxStore, Executor executor) {
+        this.boxStore = boxStore;
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        synchronized (lock) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor was shut down");
+            }
+            queuedCount++;
+        }
+        try {
+            executor.execute(() -> run(command));
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                queuedCount--;
+                lock.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private void run(Runnable command) {
+        synchronized (lock) {
+            queuedCount--;
+            activeCount++;
+        }
+        try {
+            command.run();
+        } finally {
+            try {
+                boxStore.closeThreadResources();
+            } finally {
+                synchronized (lock) {
+                    activeCount--;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getQueuedTaskCount() {
+        synchronized (lock) {
+            return queuedCount;
+        }
+    }
+
+    @Override
+    public int getActiveTaskCount() {
+        synchronized (lock) {
+            return activeCount;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+        }
+    }
+
+    /** Like {@link #shutdown()}; tasks already submitted to the supplied executor can not be taken back. */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        synchronized (lock) {
+            return shutdown;
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        synchronized (lock) {
+            return shutdown && queuedCount == 0 && activeCount == 0;
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (!(shutdown && queuedCount == 0 && activeCount == 0)) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    return false;
+                }
+                lock.wait(remainingMillis);
+            }
+            return true;
+        }
+    }
+}
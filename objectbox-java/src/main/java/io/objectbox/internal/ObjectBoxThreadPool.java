@@ -17,6 +17,8 @@
 package io.objectbox.internal;
 
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -33,16 +35,90 @@ import io.objectbox.annotation.apihint.Internal;
  *     <li>Reduce keep-alive time for threads to 20 seconds</li>
  *     <li>Uses a ThreadFactory to name threads like "ObjectBox-1-Thread-1"</li>
  * </ul>
- *
+ * <p>
+ * Alternatively, {@link #ObjectBoxThreadPool(BoxStore, int, int)} creates a bounded pool: tasks are queued once
+ * all threads are busy and, if the queue is full, the submitting thread blocks until there is room (back-pressure).
+ * Tasks submitted by threads of the pool itself never block to prevent dead locks; they may exceed the capacity.
  */
 @Internal
-public class ObjectBoxThreadPool extends ThreadPoolExecutor {
+public class ObjectBoxThreadPool extends ThreadPoolExecutor implements ExecutorMetrics {
     private final BoxStore boxStore;
+    /** 0 if unbounded. */
+    private final int queueCapacity;
+    private final Object queueCapacityLock = new Object();
+    private final ThreadLocal<Boolean> isPoolThread = new ThreadLocal<>();
 
     public ObjectBoxThreadPool(BoxStore boxStore) {
         super(0, Integer.MAX_VALUE, 20L, TimeUnit.SECONDS, new SynchronousQueue<>(),
                 new ObjectBoxThreadFactory());
         this.boxStore = boxStore;
+        this.queueCapacity = 0;
+    }
+
+    public ObjectBoxThreadPool(BoxStore boxStore, int maxThreads, int queueCapacity) {
+        // Queue itself is unbounded, capacity is enforced in execute() for threads not belonging to this pool.
+        super(maxThreads, maxThreads, 20L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ObjectBoxThreadFactory());
+        allowCoreThreadTimeOut(true);
+        this.boxStore = boxStore;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (queueCapacity > 0 && isPoolThread.get() == null) {
+            awaitQueueCapacity();
+        }
+        super.execute(command);
+    }
+
+    /**
+     * Like {@link #execute(Runnable)}, but if this is a bounded pool and its queue is full, returns false instead of
+     * waiting until there is room.
+     */
+    public boolean tryExecute(Runnable command) {
+        if (queueCapacity > 0 && isPoolThread.get() == null && getQueue().size() >= queueCapacity) {
+            return false;
+        }
+        super.execute(command);
+        return true;
+    }
+
+    private void awaitQueueCapacity() {
+        synchronized (queueCapacityLock) {
+            while (getQueue().size() >= queueCapacity && !isShutdown()) {
+                try {
+                    // Notified when a task was taken from the queue; timeout as a safety net.
+                    queueCapacityLock.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrupted while waiting for queue capacity", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+        if (queueCapacity > 0) {
+            if (isPoolThread.get() == null) {
+                isPoolThread.set(Boolean.TRUE);
+            }
+            synchronized (queueCapacityLock) {
+                queueCapacityLock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public int getQueuedTaskCount() {
+        return getQueue().size();
+    }
+
+    @Override
+    public int getActiveTaskCount() {
+        return getActiveCount();
     }
 
     @Override
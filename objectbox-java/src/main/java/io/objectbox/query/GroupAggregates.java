@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.query;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.query.QueryGroupBy.Aggregate;
+
+/**
+ * Results of {@link QueryGroupBy#aggregate}: one value per group key, with keys sorted ascending.
+ * Values at the same index belong to the key at that index of {@link #getKeys()}.
+ */
+public class GroupAggregates {
+
+    private final Aggregate function;
+    private final long[] keys;
+    @Nullable private final long[] longValues;
+    private final double[] doubleValues;
+
+    GroupAggregates(Aggregate function, long[] keys, @Nullable long[] longValues, double[] doubleValues) {
+        this.function = function;
+        this.keys = keys;
+        this.longValues = longValues;
+        this.doubleValues = doubleValues;
+    }
+
+    public Aggregate getFunction() {
+        return function;
+    }
+
+    /** The number of groups. */
+    public int size() {
+        return keys.length;
+    }
+
+    /** The group keys, sorted ascending. */
+    public long[] getKeys() {
+        return keys;
+    }
+
+    /** Returns the index of the given key or -1 if there is no such group. */
+    public int indexOf(long key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? index : -1;
+    }
+
+    /** True if values are available as longs, i.e. for COUNT and for SUM, MIN and MAX of integer properties. */
+    public boolean hasLongValues() {
+        return longValues != null;
+    }
+
+    /**
+     * The values as longs, see {@link #hasLongValues()}.
+     *
+     * @throws IllegalStateException if values are not available as longs.
+     */
+    public long[] getLongValues() {
+        if (longValues == null) {
+            throw new IllegalStateException("Values of " + function + " are not available as longs");
+        }
+        return longValues;
+    }
+
+    /** The values as doubles, always available. */
+    public double[] getDoubleValues() {
+        return doubleValues;
+    }
+
+    /**
+     * The value for the given key as a long, see {@link #getLongValues()}.
+     *
+     * @throws IllegalArgumentException if there is no group with the key.
+     */
+    public long getLong(long key) {
+        return getLongValues()[indexOfOrThrow(key)];
+    }
+
+    /**
+     * The value for the given key as a double.
+     *
+     * @throws IllegalArgumentException if there is no group with the key.
+     */
+    public double getDouble(long key) {
+        return doubleValues[indexOfOrThrow(key)];
+    }
+
+    private int indexOfOrThrow(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            throw new IllegalArgumentException("No group with key " + key);
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "GroupAggregates{function=" + function + ", groups=" + keys.length + "}";
+    }
+}
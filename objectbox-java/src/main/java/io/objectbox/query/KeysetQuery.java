@@ -0,0 +1,156 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.query;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.List;
+
+import io.objectbox.Property;
+import io.objectbox.exception.DbException;
+import io.objectbox.internal.ReflectionCache;
+
+/**
+ * A query for keyset (seek-based) pagination, create using {@link QueryBuilder#buildKeysetQuery(Property, int)}.
+ * <p>
+ * Results are ordered by a sort property, then by ID. Instead of an offset, a page is requested using the sort key
+ * and ID of the last object of the previous page: {@link #findPage(long)} for the first page, then
+ * {@link #findNextPage(QueryPage)} for following pages. Alternatively, store the last sort key and ID, e.g. in a
+ * page token, and use {@link #findAfter(long, long, long)}.
+ * <p>
+ * Unlike {@link Query#find(long, long)}, objects of previous pages are excluded by the query condition instead of
+ * being found and skipped as an offset. Objects put or removed between pages do not shift pages.
+ * <p>
+ * Thread-safe: setting the page parameters and finding are done atomically.
+ */
+public class KeysetQuery<T> implements Closeable {
+
+    static final String ALIAS_SORT_KEY_PAST = "objectbox.keyset.sortKeyPast";
+    static final String ALIAS_SORT_KEY_EQUAL = "objectbox.keyset.sortKeyEqual";
+    static final String ALIAS_ID_PAST = "objectbox.keyset.idPast";
+
+    private final Query<T> query;
+    private final Property<T> sortProperty;
+    private final boolean descending;
+    private final long firstSortKey;
+    private final long firstId;
+
+    KeysetQuery(Query<T> query, Property<T> sortProperty, boolean descending) {
+        this.query = query;
+        this.sortProperty = sortProperty;
+        this.descending = descending;
+        Class<?> type = sortProperty.type;
+        long min;
+        long max;
+        if (type == Integer.class || type == int.class) {
+            min = Integer.MIN_VALUE;
+            max = Integer.MAX_VALUE;
+        } else if (type == Short.class || type == short.class) {
+            min = Short.MIN_VALUE;
+            max = Short.MAX_VALUE;
+        } else if (type == Byte.class || type == byte.class) {
+            min = Byte.MIN_VALUE;
+            max = Byte.MAX_VALUE;
+        } else {
+            min = Long.MIN_VALUE;
+            max = Long.MAX_VALUE;
+        }
+        // Seek past an imaginary object before the first one.
+        firstSortKey = descending ? max : min;
+        firstId = descending ? Long.MAX_VALUE : 0;
+    }
+
+    static void checkSortProperty(Property<?> property) {
+        Class<?> type = property.type;
+        if (type != Long.class && type != long.class && type != Date.class
+                && type != Integer.class && type != int.class
+                && type != Short.class && type != short.class
+                && type != Byte.class && type != byte.class) {
+            throw new IllegalArgumentException("Sort property must be of an integer or Date type: " + property);
+        }
+    }
+
+    /** The underlying query; do not change its parameters for keyset pagination. */
+    public Query<T> getQuery() {
+        return query;
+    }
+
+    /** Finds the first page of at most limit objects. */
+    public QueryPage<T> findPage(long limit) {
+        return findPageAfter(firstSortKey, firstId, limit);
+    }
+
+    /**
+     * Finds the page following the given page with the same limit.
+     * If the given page is the last one, returns an empty last page.
+     */
+    public QueryPage<T> findNextPage(QueryPage<T> page) {
+        if (page.getItems().isEmpty()) {
+            return page;
+        }
+        return findPageAfter(page.getLastSortKey(), page.getLastId(), page.getLimit());
+    }
+
+    /**
+     * Finds at most limit objects ordered after the object with the given sort key and ID, e.g. the last object of
+     * the previous page.
+     */
+    public List<T> findAfter(long lastSortKey, long lastId, long limit) {
+        return findPageAfter(lastSortKey, lastId, limit).getItems();
+    }
+
+    private synchronized QueryPage<T> findPageAfter(long lastSortKey, long lastId, long limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        query.setParameter(ALIAS_SORT_KEY_PAST, lastSortKey);
+        query.setParameter(ALIAS_SORT_KEY_EQUAL, lastSortKey);
+        query.setParameter(ALIAS_ID_PAST, lastId);
+        List<T> items = query.find(0, limit);
+        if (items.isEmpty()) {
+            return new QueryPage<>(items, limit, lastSortKey, lastId);
+        }
+        T last = items.get(items.size() - 1);
+        return new QueryPage<>(items, limit, getSortKey(last), query.box.getId(last));
+    }
+
+    private long getSortKey(T entity) {
+        Field field = ReflectionCache.getInstance().getField(query.box.getEntityClass(), sortProperty.name);
+        Object value;
+        try {
+            value = field.get(entity);
+        } catch (IllegalAccessException e) {
+            throw new DbException("Could not read sort key " + sortProperty, e);
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        } else if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        throw new DbException("Sort key " + sortProperty + " is null or not a number: " + value);
+    }
+
+    /** True if results are ordered by descending sort key and ID, see {@link QueryBuilder#DESCENDING}. */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public void close() {
+        query.close();
+    }
+}
@@ -17,14 +17,19 @@ package io.objectbox.query;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 import javax.annotation.Nullable;
 
 import io.objectbox.Box;
+import io.objectbox.collect.LongArrayList;
+import io.objectbox.collect.LongHashSet;
 import io.objectbox.exception.DbException;
 
 /**
@@ -40,6 +45,11 @@ import io.objectbox.exception.DbException;
  * operations are supported. Note that operations that require the whole list, like contains, will fetch all
  * Objects in this list from the Box at once.
  * <p>
+ * If the list is set to cache windows (see {@link Query#findLazyWindowed(int, int)}), Objects are fetched in windows
+ * of consecutive positions using a single read transaction each, and only a limited number of recently used windows
+ * is kept. When accessing positions sequentially (e.g. iterating), the next window is fetched in the background
+ * before it is reached. Like for the non-caching mode, only a limited set of {@link List} operations is supported.
+ * <p>
  * Note: as Objects are fetched on demand, this list returns a null Object if the Object was removed from its Box
  * after this list was created.
  *
@@ -123,13 +133,49 @@ public class LazyList<E> implements List<E> {
 
     private volatile int loadedCount;
 
+    // Windowed mode only, guarded by this.
+    private final int windowSize;
+    @Nullable private final Map<Integer, Object[]> windows;
+    @Nullable private final LongHashSet loadingWindows;
+    /** Failures of read ahead windows, thrown once the window is accessed. */
+    @Nullable private final Map<Integer, RuntimeException> readAheadFailures;
+    private int lastLocation = -1;
+    private int windowLoadCount;
+
     LazyList(Box<E> box, long[] objectIds, boolean cacheEntities) {
+        this(box, objectIds, cacheEntities, 0, 0);
+    }
+
+    /**
+     * Creates a list caching the given number of windows, each window containing the given number of objects.
+     */
+    LazyList(Box<E> box, long[] objectIds, int windowSize, int maxWindows) {
+        this(box, objectIds, false, windowSize, maxWindows);
+    }
+
+    private LazyList(Box<E> box, long[] objectIds, boolean cacheEntities, int windowSize, int maxWindows) {
         if (box == null || objectIds == null) {
             throw new NullPointerException("Illegal null parameters passed");
         }
         this.box = box;
         this.objectIds = objectIds;
         size = objectIds.length;
+        this.windowSize = windowSize;
+        if (windowSize > 0) {
+            // Access order: iterating the map starts with the least recently used window.
+            windows = new LinkedHashMap<Integer, Object[]>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+                    return size() > maxWindows;
+                }
+            };
+            loadingWindows = new LongHashSet();
+            readAheadFailures = new HashMap<>();
+        } else {
+            windows = null;
+            loadingWindows = null;
+            readAheadFailures = null;
+        }
         if (cacheEntities) {
             entities = new ArrayList<>(size);
             for (int i = 0; i < size; i++) {
@@ -161,14 +207,34 @@ public class LazyList<E> implements List<E> {
     }
 
     /** Like get but does not load the entity if it was not loaded before. */
+    @SuppressWarnings("unchecked")
     public E peek(int location) {
-        if (entities != null) {
+        if (windows != null) {
+            int windowIndex = location / windowSize;
+            synchronized (this) {
+                Object[] window = windows.get(windowIndex);
+                return window != null ? (E) window[location - windowIndex * windowSize] : null;
+            }
+        } else if (entities != null) {
             return entities.get(location);
         } else {
             return null;
         }
     }
 
+    /** Returns the ID of the Object at the given position without loading it. */
+    public long getId(int location) {
+        if (location < 0 || location >= size) {
+            throw new IndexOutOfBoundsException("Illegal cursor location " + location);
+        }
+        return objectIds[location];
+    }
+
+    /** Returns the IDs of all Objects of this list in list order. */
+    public LongArrayList getIds() {
+        return new LongArrayList(objectIds);
+    }
+
     public int getLoadedCount() {
         return loadedCount;
     }
@@ -225,7 +291,9 @@ public class LazyList<E> implements List<E> {
         if (location < 0 || location > size) {
             throw new IndexOutOfBoundsException("Illegal cursor location " + location);
         }
-        if (entities != null) {
+        if (windows != null) {
+            return getFromWindow(location);
+        } else if (entities != null) {
             E entity = entities.get(location);
             if (entity == null) {
                 // Do DB action outside of synchronized and check later if we use the new entity.
@@ -249,6 +317,134 @@ public class LazyList<E> implements List<E> {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private E getFromWindow(int location) {
+        int windowIndex = location / windowSize;
+        Object[] window;
+        int readAheadWindowIndex;
+        synchronized (this) {
+            while ((window = windows.get(windowIndex)) == null && loadingWindows.contains(windowIndex)) {
+                // Being read ahead, wait for it instead of fetching the same objects again.
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            RuntimeException readAheadFailure = readAheadFailures.remove(windowIndex);
+            if (readAheadFailure != null) {
+                throw new DbException("Reading ahead window " + windowIndex + " failed", readAheadFailure);
+            }
+            readAheadWindowIndex = markReadAheadIfSequential(location, windowIndex);
+            lastLocation = location;
+        }
+        if (readAheadWindowIndex >= 0) {
+            // Outside of synchronized: submitting may block or fail, e.g. while the store is closing.
+            scheduleReadAhead(readAheadWindowIndex);
+        }
+        if (window == null) {
+            window = loadWindow(windowIndex);
+        }
+        return (E) window[location - windowIndex * windowSize];
+    }
+
+    /**
+     * Must hold lock. If access is sequential, marks the next window in that direction as loading and returns its
+     * index to be passed to {@link #scheduleReadAhead(int)}; otherwise returns -1.
+     */
+    private int markReadAheadIfSequential(int location, int windowIndex) {
+        int offset = location - windowIndex * windowSize;
+        int readAheadWindowIndex;
+        if (location == lastLocation + 1 && offset >= windowSize / 2) {
+            readAheadWindowIndex = windowIndex + 1;
+        } else if (location == lastLocation - 1 && offset < windowSize / 2) {
+            readAheadWindowIndex = windowIndex - 1;
+        } else {
+            return -1;
+        }
+        if (readAheadWindowIndex < 0 || readAheadWindowIndex * windowSize >= size
+                || windows.containsKey(readAheadWindowIndex) || loadingWindows.contains(readAheadWindowIndex)) {
+            return -1;
+        }
+        loadingWindows.add(readAheadWindowIndex);
+        return readAheadWindowIndex;
+    }
+
+    /**
+     * Must not hold lock. Drops reading ahead if the thread pool has no room for it, instead of waiting
+     * for it: the window will be loaded on access instead.
+     */
+    private void scheduleReadAhead(int windowIndex) {
+        boolean scheduled;
+        try {
+            scheduled = box.getStore().internalTryScheduleThread(() -> readAheadWindow(windowIndex));
+        } catch (RuntimeException e) {
+            // E.g. store closing.
+            scheduled = false;
+        }
+        if (!scheduled) {
+            synchronized (this) {
+                if (loadingWindows.remove(windowIndex)) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    private void readAheadWindow(int windowIndex) {
+        loadWindow(windowIndex, true);
+    }
+
+    private Object[] loadWindow(int windowIndex) {
+        return loadWindow(windowIndex, false);
+    }
+
+    /**
+     * If readAhead, failures are not thrown (nobody would catch them on a pool thread) but stored to be thrown
+     * once the window is accessed.
+     */
+    private Object[] loadWindow(int windowIndex, boolean readAhead) {
+        int start = windowIndex * windowSize;
+        int end = Math.min(start + windowSize, size);
+        Object[] window = new Object[end - start];
+        try {
+            // Use single reader only for efficiency
+            box.getStore().runInReadTx(() -> {
+                for (int i = start; i < end; i++) {
+                    window[i - start] = box.get(objectIds[i]);
+                }
+            });
+            synchronized (this) {
+                windows.put(windowIndex, window);
+                windowLoadCount++;
+            }
+        } catch (RuntimeException e) {
+            if (!readAhead) throw e;
+            synchronized (this) {
+                // Before no longer marking the window as loading, so waiting threads see it.
+                readAheadFailures.put(windowIndex, e);
+            }
+        } finally {
+            synchronized (this) {
+                if (loadingWindows.remove(windowIndex)) {
+                    notifyAll();
+                }
+            }
+        }
+        return window;
+    }
+
+    /** For windowed lists, the number of windows fetched from the Box so far (including read-ahead). */
+    public synchronized int getWindowLoadCount() {
+        return windowLoadCount;
+    }
+
+    /** For windowed lists, the number of windows currently cached. */
+    public synchronized int getCachedWindowCount() {
+        return windows != null ? windows.size() : 0;
+    }
+
     @Override
     public int indexOf(Object object) {
         loadRemaining();
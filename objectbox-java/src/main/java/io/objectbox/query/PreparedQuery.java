@@ -0,0 +1,208 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.query;
+
+import java.io.Closeable;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.Box;
+import io.objectbox.Property;
+import io.objectbox.annotation.apihint.Internal;
+
+/**
+ * A query that can be used by any number of threads concurrently, create using
+ * {@link Box#prepareQuery(QueryDefinition)}.
+ * <p>
+ * A {@link Query} holds its parameters, so a single instance must not be used by multiple threads if they set
+ * different parameters. Instead of building a query for each call, this keeps a pool of queries built from the
+ * same {@link QueryDefinition}: each call borrows a query, sets the parameters given for this call, runs it and
+ * returns the query to the pool. So queries are built once for each thread running the query at the same time
+ * and then reused.
+ * <pre>
+ * PreparedQuery&lt;User&gt; byName = box.prepareQuery(qb -&gt; qb.equal(User_.name, "", StringOrder.CASE_SENSITIVE));
+ * // On any thread:
+ * List&lt;User&gt; users = byName.bind(User_.name, "Jane").find();
+ * </pre>
+ * Parameters not bound for a call have the value given in the definition, not the one bound by a previous call.
+ * Bind a parameter either via its property or via its alias, not both.
+ * <p>
+ * Close the prepared query once done with it to close all pooled queries.
+ */
+public class PreparedQuery<T> implements Closeable {
+
+    /** A pooled query and the parameters (see {@link Query#conditionKey}) bound to it since it was built. */
+    static class PooledQuery<T> {
+        final Query<T> query;
+        final Set<String> boundParameters = new HashSet<>();
+
+        PooledQuery(Query<T> query) {
+            this.query = query;
+        }
+    }
+
+    private final Box<T> box;
+    private final QueryDefinition<T> definition;
+    private final int maxIdleQueries;
+    /** Most recently returned first. */
+    private final ConcurrentLinkedDeque<PooledQuery<T>> idleQueries = new ConcurrentLinkedDeque<>();
+    /** Size of {@link #idleQueries}, which is expensive to count; may briefly include a query being returned. */
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger buildCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * Builds the first query right away, so an invalid definition fails here.
+     *
+     * @param maxIdleQueries queries exceeding this count when returned to the pool are closed.
+     */
+    @Internal
+    public PreparedQuery(Box<T> box, QueryDefinition<T> definition, int maxIdleQueries) {
+        if (maxIdleQueries < 1) {
+            throw new IllegalArgumentException("maxIdleQueries must be at least 1");
+        }
+        this.box = box;
+        this.definition = definition;
+        this.maxIdleQueries = maxIdleQueries;
+        idleQueries.add(new PooledQuery<>(buildQuery()));
+        idleCount.set(1);
+    }
+
+    private Query<T> buildQuery() {
+        QueryBuilder<T> builder = box.query();
+        try {
+            definition.define(builder);
+            Query<T> query = builder.build();
+            buildCount.incrementAndGet();
+            return query;
+        } finally {
+            builder.close();
+        }
+    }
+
+    /** Starts a call binding the given value to the parameter of the given property. */
+    public QueryBindings<T> bind(Property<?> property, String value) {
+        return new QueryBindings<>(this).bind(property, value);
+    }
+
+    /** Starts a call binding the given value to the parameter of the given property. */
+    public QueryBindings<T> bind(Property<?> property, long value) {
+        return new QueryBindings<>(this).bind(property, value);
+    }
+
+    /** Starts a call binding the given value to the parameter of the given property. */
+    public QueryBindings<T> bind(Property<?> property, double value) {
+        return new QueryBindings<>(this).bind(property, value);
+    }
+
+    /** Starts a call binding the given value to the parameter with the given alias. */
+    public QueryBindings<T> bind(String alias, String value) {
+        return new QueryBindings<>(this).bind(alias, value);
+    }
+
+    /** Starts a call binding the given value to the parameter with the given alias. */
+    public QueryBindings<T> bind(String alias, long value) {
+        return new QueryBindings<>(this).bind(alias, value);
+    }
+
+    /** Starts a call without binding parameters, use the returned instance to bind them. */
+    public QueryBindings<T> bindings() {
+        return new QueryBindings<>(this);
+    }
+
+    /** Like {@link Query#find()} with the parameter values of the definition. */
+    public List<T> find() {
+        return bindings().find();
+    }
+
+    /** Like {@link Query#findFirst()} with the parameter values of the definition. */
+    @Nullable
+    public T findFirst() {
+        return bindings().findFirst();
+    }
+
+    /** Like {@link Query#findIds()} with the parameter values of the definition. */
+    public long[] findIds() {
+        return bindings().findIds();
+    }
+
+    /** Like {@link Query#count()} with the parameter values of the definition. */
+    public long count() {
+        return bindings().count();
+    }
+
+    /**
+     * Borrows a query from the pool that has at most the given parameters bound, so no other parameter was changed
+     * from the definition; builds a new query if there is none.
+     */
+    PooledQuery<T> acquire(Set<String> parameters) {
+        if (closed) {
+            throw new IllegalStateException("Prepared query was closed");
+        }
+        for (PooledQuery<T> pooled : idleQueries) {
+            // remove() succeeds for one thread only.
+            if (parameters.containsAll(pooled.boundParameters) && idleQueries.remove(pooled)) {
+                idleCount.decrementAndGet();
+                return pooled;
+            }
+        }
+        return new PooledQuery<>(buildQuery());
+    }
+
+    /** Returns a query to the pool, or closes it if the pool is full or this was closed. */
+    void release(PooledQuery<T> pooled) {
+        if (closed) {
+            pooled.query.close();
+            return;
+        }
+        // Reserve a place in the pool first, so concurrent calls can not exceed the max count.
+        if (idleCount.incrementAndGet() > maxIdleQueries) {
+            idleCount.decrementAndGet();
+            pooled.query.close();
+            return;
+        }
+        idleQueries.offerFirst(pooled);
+        if (closed) {
+            closeIdleQueries(); // Raced with close().
+        }
+    }
+
+    /** Number of queries built so far, e.g. to check if queries are reused. */
+    public int getBuildCount() {
+        return buildCount.get();
+    }
+
+    /** Closes pooled queries; calls running concurrently close their query once done. */
+    @Override
+    public void close() {
+        closed = true;
+        closeIdleQueries();
+    }
+
+    private void closeIdleQueries() {
+        PooledQuery<T> pooled;
+        while ((pooled = idleQueries.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            pooled.query.close();
+        }
+    }
+
+}
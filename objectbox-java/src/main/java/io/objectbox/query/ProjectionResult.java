@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.query;
+
+import java.util.List;
+
+import io.objectbox.Property;
+
+/**
+ * Columns of property values found by a {@link QueryProjection}. All columns have a value for each object, so
+ * values at the same index belong to the same object, e.g. the object with the ID at that index of
+ * {@link #getIds()}.
+ * <p>
+ * Get a column using the getter matching the property type, e.g. {@link #getLongs(Property)} for long and Date
+ * properties. The returned arrays are not copied, so do not modify them if the result is shared.
+ */
+public class ProjectionResult<T> {
+
+    private final long[] ids;
+    private final List<Property<T>> properties;
+    private final Object[] columns;
+
+    ProjectionResult(long[] ids, List<Property<T>> properties, Object[] columns) {
+        this.ids = ids;
+        this.properties = properties;
+        this.columns = columns;
+    }
+
+    /** The number of objects (rows). */
+    public int size() {
+        return ids.length;
+    }
+
+    /** The IDs of the objects. */
+    public long[] getIds() {
+        return ids;
+    }
+
+    /** Values of a long or Date property. */
+    public long[] getLongs(Property<T> property) {
+        return column(property, long[].class);
+    }
+
+    public int[] getInts(Property<T> property) {
+        return column(property, int[].class);
+    }
+
+    public short[] getShorts(Property<T> property) {
+        return column(property, short[].class);
+    }
+
+    public byte[] getBytes(Property<T> property) {
+        return column(property, byte[].class);
+    }
+
+    public char[] getChars(Property<T> property) {
+        return column(property, char[].class);
+    }
+
+    public boolean[] getBooleans(Property<T> property) {
+        return column(property, boolean[].class);
+    }
+
+    public float[] getFloats(Property<T> property) {
+        return column(property, float[].class);
+    }
+
+    public double[] getDoubles(Property<T> property) {
+        return column(property, double[].class);
+    }
+
+    public String[] getStrings(Property<T> property) {
+        return column(property, String[].class);
+    }
+
+    private <A> A column(Property<T> property, Class<A> arrayClass) {
+        for (int i = 0; i < properties.size(); i++) {
+            if (properties.get(i).id == property.id) {
+                Object column = columns[i];
+                if (!arrayClass.isInstance(column)) {
+                    throw new IllegalArgumentException("Property " + property + " is not of type "
+                            + arrayClass.getComponentType());
+                }
+                return arrayClass.cast(column);
+            }
+        }
+        throw new IllegalArgumentException("Property is not projected: " + property);
+    }
+
+}
@@ -17,20 +17,31 @@
 package io.objectbox.query;
 
 import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import io.objectbox.Box;
 import io.objectbox.BoxStore;
+import io.objectbox.Cursor;
 import io.objectbox.InternalAccess;
 import io.objectbox.Property;
+import io.objectbox.ReadSnapshot;
+import io.objectbox.collect.LongCollection;
+import io.objectbox.collect.LongHashSet;
+import io.objectbox.internal.NativeResourceTracker;
 import io.objectbox.reactive.DataObserver;
 import io.objectbox.reactive.DataSubscriptionList;
 import io.objectbox.reactive.SubscriptionBuilder;
@@ -53,7 +64,7 @@ import io.objectbox.relation.ToOne;
 @SuppressWarnings({"SameParameterValue", "UnusedReturnValue", "WeakerAccess"})
 public class Query<T> implements Closeable {
 
-    native void nativeDestroy(long handle);
+    static native void nativeDestroy(long handle);
 
     native Object nativeFindFirst(long handle, long cursorHandle);
 
@@ -104,13 +115,18 @@ public class Query<T> implements Closeable {
     final Box<T> box;
     private final BoxStore store;
     private final QueryPublisher<T> publisher;
+    private volatile QueryChangesPublisher<T> changesPublisher;
     @Nullable private final List<EagerRelation<T, ?>> eagerRelations;
     @Nullable private final QueryFilter<T> filter;
     @Nullable private final Comparator<T> comparator;
     private final int queryAttempts;
+    @Nullable private QueryResultCache resultCache;
     private static final int INITIAL_RETRY_BACK_OFF_IN_MS = 10;
+    private static final int DEFAULT_STREAM_CHUNK_SIZE = 1000;
 
     long handle;
+    /** Releases the native query if this is not closed. */
+    private final NativeResourceTracker.Registration trackerRegistration;
 
     Query(Box<T> box, long queryHandle, @Nullable List<EagerRelation<T, ?>> eagerRelations, @Nullable  QueryFilter<T> filter,
           @Nullable Comparator<T> comparator) {
@@ -122,26 +138,22 @@ public class Query<T> implements Closeable {
         this.eagerRelations = eagerRelations;
         this.filter = filter;
         this.comparator = comparator;
-    }
-
-    /**
-     * Explicitly call {@link #close()} instead to avoid expensive finalization.
-     */
-    @SuppressWarnings("deprecation") // finalize()
-    @Override
-    protected void finalize() throws Throwable {
-        close();
-        super.finalize();
+        trackerRegistration = NativeResourceTracker.getInstance().register(this, "Query", queryHandle,
+                Query::nativeDestroy, false, null);
     }
 
     /**
      * If possible, try to close the query once you are done with it to reclaim resources immediately.
      */
     public synchronized void close() {
+        if (resultCache != null) {
+            resultCache.clear();
+        }
         if (handle != 0) {
             // Closeable recommendation: mark as "closed" before nativeDestroy could throw.
             long handleCopy = handle;
             handle = 0;
+            trackerRegistration.unregister();
             nativeDestroy(handleCopy);
         }
     }
@@ -173,7 +185,7 @@ public class Query<T> implements Closeable {
     private void ensureNoFilter() {
         if (filter != null) {
             throw new UnsupportedOperationException("Does not work with a filter. " +
-                    "Only find() and forEach() support filters.");
+                    "Only find(), forEach() and stream() support filters.");
         }
     }
 
@@ -205,6 +217,32 @@ public class Query<T> implements Closeable {
      */
     @Nonnull
     public List<T> find() {
+        QueryResultCache cache = resultCacheIfUsable();
+        if (cache != null) {
+            // Cache IDs only and get objects again for each call, callers may modify them.
+            return cache.get(QueryResultCache.KIND_FIND, this::findUncached, this::idsOf, this::findByIds);
+        }
+        return findUncached();
+    }
+
+    private long[] idsOf(List<T> entities) {
+        long[] ids = new long[entities.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = box.getId(entities.get(i));
+        }
+        return ids;
+    }
+
+    /** Gets the objects found before (in the given order) like {@link #find()} would, e.g. with eager relations. */
+    private List<T> findByIds(long[] ids) {
+        return callInReadTx(() -> {
+            List<T> entities = box.get(ids);
+            resolveEagerRelations(entities);
+            return entities;
+        });
+    }
+
+    private List<T> findUncached() {
         return callInReadTx(() -> {
             List<T> entities = nativeFind(Query.this.handle, cursorHandle(), 0, 0);
             if (filter != null) {
@@ -224,6 +262,70 @@ public class Query<T> implements Closeable {
         });
     }
 
+    /**
+     * Like {@link #find()}, but loads the found Objects in parallel using the common {@link ForkJoinPool}.
+     *
+     * @see #findParallel(ForkJoinPool)
+     */
+    @Nonnull
+    public List<T> findParallel() {
+        return findParallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like {@link #find()}, but loads the found Objects in parallel using the given {@link ForkJoinPool}.
+     * <p>
+     * The query itself is run once to find the IDs of all matching Objects. The IDs are then split into ranges
+     * and each range loads its Objects using separate read transactions, applying any filter and eager relations.
+     * Ranges are merged in order; a sorting comparator is applied to the merged result.
+     * <p>
+     * This can speed up queries returning a high amount of Objects if multiple cores are available.
+     * Note: there is no snapshot consistency: Objects may be from different commits, and Objects removed or changed
+     * to no longer match after the IDs were found may be missing or returned. Use
+     * {@link #findParallel(ReadSnapshot, ForkJoinPool)} to get a result consistent like the one of {@link #find()}.
+     */
+    @Nonnull
+    public List<T> findParallel(ForkJoinPool pool) {
+        return findParallel(new QuerySpliterator<>(this, DEFAULT_STREAM_CHUNK_SIZE, filter), pool);
+    }
+
+    /**
+     * Like {@link #findParallel(ReadSnapshot, ForkJoinPool)} using the common {@link ForkJoinPool}.
+     */
+    @Nonnull
+    public List<T> findParallel(ReadSnapshot snapshot) {
+        return findParallel(snapshot, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like {@link #findParallel(ForkJoinPool)}, but the IDs are found and all Objects are loaded using the read
+     * transactions of the given snapshot (see {@link BoxStore#snapshot(int)}), so the result is consistent like the
+     * one of {@link #find()}. The snapshot must be of the store of this query; it is not closed by this method.
+     */
+    @Nonnull
+    public List<T> findParallel(ReadSnapshot snapshot, ForkJoinPool pool) {
+        if (snapshot.isClosed()) {
+            throw new IllegalStateException("Snapshot is closed");
+        }
+        return findParallel(new QuerySpliterator<>(this, DEFAULT_STREAM_CHUNK_SIZE, filter, snapshot), pool);
+    }
+
+    private List<T> findParallel(QuerySpliterator<T> spliterator, ForkJoinPool pool) {
+        List<T> entities;
+        try {
+            // Running the parallel stream from within the pool makes it use the pool.
+            entities = pool.submit(() -> StreamSupport.stream(spliterator, true)
+                    .collect(Collectors.toCollection(ArrayList::new))
+            ).join();
+        } finally {
+            spliterator.close();
+        }
+        if (comparator != null) {
+            Collections.sort(entities, comparator);
+        }
+        return entities;
+    }
+
     /**
      * Find all Objects matching the query, skipping the first offset results and returning at most limit results.
      * Use this for pagination.
@@ -238,6 +340,96 @@ public class Query<T> implements Closeable {
         });
     }
 
+    /**
+     * Finds the first k Objects of the result, like {@code find()} limited to k Objects, but without ordering or
+     * holding all matching Objects:
+     * <ul>
+     * <li>Without filter and comparator, the database orders and limits the result (see
+     * {@link QueryBuilder#order(Property)}), using an index of the order property if there is one.</li>
+     * <li>With a filter but without comparator, Objects are loaded in database order only until k of them
+     * passed the filter.</li>
+     * <li>With a comparator ({@link QueryBuilder#sort(Comparator)}), each matching Object is loaded and offered to a
+     * bounded heap holding the best k Objects seen so far, so this takes O(n log k) time and memory for k Objects
+     * instead of all n. Only the IDs of all matching Objects are held in memory.</li>
+     * </ul>
+     * Ties are resolved like {@link #find()} does, so the result equals the first k Objects found by it.
+     * Eager relations are resolved for the returned Objects only.
+     *
+     * @param k maximum number of Objects to return.
+     */
+    @Nonnull
+    public List<T> findTop(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+        if (filter == null && comparator == null) {
+            return find(0, k);
+        }
+        return callInReadTx(() -> {
+            long[] ids = nativeFindIds(handle, cursorHandle(), 0, 0);
+            Cursor<T> cursor = InternalAccess.getActiveTxCursor(box);
+            List<T> entities = comparator == null ? findTopFiltered(cursor, ids, k) : findTopSorted(cursor, ids, k);
+            resolveEagerRelations(entities);
+            return entities;
+        });
+    }
+
+    private List<T> findTopFiltered(Cursor<T> cursor, long[] ids, int k) {
+        List<T> entities = new ArrayList<>(Math.min(k, ids.length));
+        for (int i = 0; i < ids.length && entities.size() < k; i++) {
+            T entity = cursor.get(ids[i]);
+            if (entity != null && (filter == null || filter.keep(entity))) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    /** Candidate for the top k; the index in database order resolves ties like the stable sort of find(). */
+    private static final class TopCandidate<T> {
+        final T entity;
+        final int index;
+
+        TopCandidate(T entity, int index) {
+            this.entity = entity;
+            this.index = index;
+        }
+    }
+
+    private List<T> findTopSorted(Cursor<T> cursor, long[] ids, int k) {
+        @SuppressWarnings("ConstantConditions") // Only called if there is a comparator.
+        Comparator<TopCandidate<T>> order = (a, b) -> {
+            int result = comparator.compare(a.entity, b.entity);
+            return result != 0 ? result : Integer.compare(a.index, b.index);
+        };
+        // Head is the worst of the best k candidates, to be replaced by a better one.
+        PriorityQueue<TopCandidate<T>> heap = new PriorityQueue<>(Math.min(k, Math.max(ids.length, 1)),
+                order.reversed());
+        for (int i = 0; i < ids.length; i++) {
+            T entity = cursor.get(ids[i]);
+            if (entity == null || (filter != null && !filter.keep(entity))) {
+                continue;
+            }
+            TopCandidate<T> candidate = new TopCandidate<>(entity, i);
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (order.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+        List<TopCandidate<T>> candidates = new ArrayList<>(heap);
+        candidates.sort(order);
+        List<T> entities = new ArrayList<>(candidates.size());
+        for (TopCandidate<T> candidate : candidates) {
+            entities.add(candidate.entity);
+        }
+        return entities;
+    }
+
     /**
      * Very efficient way to get just the IDs without creating any objects. IDs can later be used to lookup objects
      * (lookups by ID are also very efficient in ObjectBox).
@@ -246,6 +438,10 @@ public class Query<T> implements Closeable {
      */
     @Nonnull
     public long[] findIds() {
+        QueryResultCache cache = resultCacheIfUsable();
+        if (cache != null) {
+            return cache.get(QueryResultCache.KIND_FIND_IDS, () -> findIds(0, 0)).clone();
+        }
         return findIds(0,0);
     }
 
@@ -259,6 +455,16 @@ public class Query<T> implements Closeable {
         return box.internalCallWithReaderHandle(cursorHandle -> nativeFindIds(handle, cursorHandle, offset, limit));
     }
 
+    /**
+     * Like {@link #findIds()}, but returns the IDs in a {@link LongHashSet}, e.g. for fast membership checks.
+     * <p>
+     * Note: a filter set with {@link QueryBuilder#filter(QueryFilter)} will be silently ignored!
+     */
+    @Nonnull
+    public LongHashSet findIdSet() {
+        return new LongHashSet(findIds());
+    }
+
     /**
      * Like {@link #findIds()}, but wraps the Object IDs in an unmodifiable {@link LazyList}
      * so Objects can be retrieved on demand. The LazyList does not cache retrieved Objects, so only basic
@@ -270,6 +476,30 @@ public class Query<T> implements Closeable {
         return new LazyList<>(box, findIds(), false);
     }
 
+    /**
+     * Like {@link #findLazy()}, but Objects are fetched in windows of consecutive positions and a limited number
+     * of recently used windows is cached. When accessing positions sequentially, e.g. when iterating, the next
+     * window is read ahead in the background (unless the thread pool of the store is saturated, see
+     * {@link io.objectbox.BoxStoreBuilder#threadPool(int, int)}). This keeps memory bounded for large results while avoiding a read
+     * transaction per Object. See {@link LazyList} for details.
+     *
+     * @param windowSize number of Objects fetched together, e.g. about the number of Objects displayed at once.
+     * @param maxWindows maximum number of windows to keep cached; at least 2 to not drop read ahead windows.
+     * @throws IllegalArgumentException if windowSize is less than 1 or maxWindows is less than 2
+     */
+    @Nonnull
+    public LazyList<T> findLazyWindowed(int windowSize, int maxWindows) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be at least 1");
+        }
+        if (maxWindows < 2) {
+            // The read ahead window would replace the one currently read.
+            throw new IllegalArgumentException("maxWindows must be at least 2");
+        }
+        ensureNoFilterNoComparator();
+        return new LazyList<>(box, findIds(), windowSize, maxWindows);
+    }
+
     /**
      * Like {@link #findIds()}, but wraps the Object IDs in an unmodifiable, caching {@link LazyList}
      * so Objects can be retrieved on demand. The LazyList caches retrieved Objects supporting almost
@@ -293,6 +523,33 @@ public class Query<T> implements Closeable {
         return new PropertyQuery(this, property);
     }
 
+    /**
+     * Creates a {@link QueryProjection} to find the values of the given properties of all objects matching this
+     * query in a single read transaction, returned as columns aligned by object.
+     * <p>
+     * Unlike using a {@link PropertyQuery} for each property, null values are included, so values at the same index
+     * belong to the same object.
+     */
+    @SafeVarargs
+    public final QueryProjection<T> project(Property<T>... properties) {
+        ensureNoFilterNoComparator();
+        // Copy instead of passing on the generic varargs array, which could cause heap pollution.
+        List<Property<T>> propertyList = new ArrayList<>(properties.length);
+        for (Property<T> property : properties) {
+            propertyList.add(property);
+        }
+        return new QueryProjection<>(this, box.getEntityInfo().getIdProperty(), propertyList);
+    }
+
+    /**
+     * Creates a {@link QueryGroupBy} to aggregate values of objects matching this query per value of the given
+     * key property, e.g. the sum of amounts per customer ID.
+     */
+    public QueryGroupBy<T> groupBy(Property<T> keyProperty) {
+        ensureNoFilterNoComparator();
+        return new QueryGroupBy<>(this, keyProperty);
+    }
+
     <R> R callInReadTx(Callable<R> callable) {
         return store.callInReadTxWithRetry(callable, queryAttempts, INITIAL_RETRY_BACK_OFF_IN_MS, true);
     }
@@ -333,6 +590,39 @@ public class Query<T> implements Closeable {
         });
     }
 
+    /**
+     * Returns a sequential {@link Stream} of the Objects matching the query.
+     * <p>
+     * Unlike {@link #find()}, Objects are not all loaded at once: they are loaded in chunks while the stream is
+     * consumed, so this is memory efficient for a high amount of data. Short-circuiting operations like
+     * {@link Stream#findFirst()} or {@link Stream#limit(long)} stop loading further Objects.
+     * A filter set with {@link QueryBuilder#filter(QueryFilter)} and eager relations are applied.
+     * <p>
+     * All Objects are read from a single read transaction started when the stream is first consumed, so it
+     * gets a consistent view on the data. The transaction is closed once all Objects were consumed; if the stream
+     * is not fully consumed, make sure to {@link Stream#close()} it (e.g. using try-with-resources).
+     * <p>
+     * The stream may be turned into a parallel stream using {@link Stream#parallel()}: the found IDs are then split
+     * into ranges, each loading its Objects using separate read transactions, so like with
+     * {@link #findParallel(ForkJoinPool)} there is no snapshot consistency.
+     * <p>
+     * Note: like {@link #forEach(QueryConsumer)}, this does not support sorting with a comparator.
+     */
+    public Stream<T> stream() {
+        return stream(DEFAULT_STREAM_CHUNK_SIZE);
+    }
+
+    /**
+     * Like {@link #stream()}, but loads the given number of Objects at a time.
+     *
+     * @param chunkSize Number of Objects to load at once. Must be 1 or greater.
+     */
+    public Stream<T> stream(int chunkSize) {
+        ensureNoComparator();
+        QuerySpliterator<T> spliterator = new QuerySpliterator<>(this, chunkSize, filter);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
     void resolveEagerRelations(List<T> entities) {
         if (eagerRelations != null) {
             int entityIndex = 0;
@@ -343,6 +633,12 @@ public class Query<T> implements Closeable {
         }
     }
 
+    void resolveEagerRelation(@Nonnull T entity, int entityIndex) {
+        if (eagerRelations != null) {
+            resolveEagerRelationForNonNullEagerRelations(entity, entityIndex);
+        }
+    }
+
     /** Note: no null check on eagerRelations! */
     void resolveEagerRelationForNonNullEagerRelations(@Nonnull T entity, int entityIndex) {
         //noinspection ConstantConditions No null check.
@@ -385,14 +681,87 @@ public class Query<T> implements Closeable {
     /** Returns the count of Objects matching the query. */
     public long count() {
         ensureNoFilter();
+        QueryResultCache cache = resultCacheIfUsable();
+        if (cache != null) {
+            return cache.get(QueryResultCache.KIND_COUNT, this::countUncached);
+        }
+        return countUncached();
+    }
+
+    private long countUncached() {
         return box.internalCallWithReaderHandle(cursorHandle -> nativeCount(handle, cursorHandle));
     }
 
+    void enableResultCache(int[] entityTypeIds, int maxEntries) {
+        resultCache = new QueryResultCache(store, entityTypeIds, maxEntries);
+    }
+
+    /**
+     * Returns the result cache if enabled and usable: inside a transaction, results may include uncommitted changes
+     * (or must see them), so the cache is bypassed.
+     */
+    @Nullable
+    private QueryResultCache resultCacheIfUsable() {
+        QueryResultCache cache = resultCache;
+        return cache != null && !InternalAccess.hasActiveTx(store) ? cache : null;
+    }
+
+    /** If results are cached, fails before a parameter is set via property and via alias, see the cache. */
+    private void verifyParameterKind(boolean viaAlias) {
+        if (resultCache != null) {
+            resultCache.verifyParameterKind(viaAlias);
+        }
+    }
+
+    private void trackParameter(@Nullable Property<?> property, @Nullable String alias, Object value) {
+        if (resultCache != null) {
+            resultCache.setParameter(conditionKey(property, alias), alias != null, new Object[]{value});
+        }
+    }
+
+    private void trackParameter(@Nullable Property<?> property, @Nullable String alias, Object value1,
+                                Object value2) {
+        if (resultCache != null) {
+            resultCache.setParameter(conditionKey(property, alias), alias != null, new Object[]{value1, value2});
+        }
+    }
+
+    static String conditionKey(@Nullable Property<?> property, @Nullable String alias) {
+        return property != null ? "p:" + property.getEntityId() + ":" + property.getId() : "a:" + alias;
+    }
+
+    /**
+     * Number of {@link #find()}, {@link #findIds()} and {@link #count()} calls answered from the result cache,
+     * see {@link QueryBuilder#cacheResults(int)}. Always 0 if the cache is not enabled.
+     */
+    public long getResultCacheHitCount() {
+        return resultCache != null ? resultCache.getHitCount() : 0;
+    }
+
+    /**
+     * Number of {@link #find()}, {@link #findIds()} and {@link #count()} calls that were not answered from the
+     * result cache and had to run the query, see {@link QueryBuilder#cacheResults(int)}.
+     * Always 0 if the cache is not enabled.
+     */
+    public long getResultCacheMissCount() {
+        return resultCache != null ? resultCache.getMissCount() : 0;
+    }
+
+    /**
+     * Number of results removed from the result cache because it was full, see {@link QueryBuilder#cacheResults(int)}.
+     * Always 0 if the cache is not enabled.
+     */
+    public long getResultCacheEvictionCount() {
+        return resultCache != null ? resultCache.getEvictionCount() : 0;
+    }
+
     /**
      * Sets a parameter previously given to the {@link QueryBuilder} to a new value.
      */
     public Query<T> setParameter(Property<?> property, String value) {
+        verifyParameterKind(false);
         nativeSetParameter(handle, property.getEntityId(), property.getId(), null, value);
+        trackParameter(property, null, value);
         return this;
     }
 
@@ -402,7 +771,9 @@ public class Query<T> implements Closeable {
      * @param alias as defined using {@link QueryBuilder#parameterAlias(String)}.
      */
     public Query<T> setParameter(String alias, String value) {
+        verifyParameterKind(true);
         nativeSetParameter(handle, 0, 0, alias, value);
+        trackParameter(null, alias, value);
         return this;
     }
 
@@ -410,7 +781,9 @@ public class Query<T> implements Closeable {
      * Sets a parameter previously given to the {@link QueryBuilder} to a new value.
      */
     public Query<T> setParameter(Property<?> property, long value) {
+        verifyParameterKind(false);
         nativeSetParameter(handle, property.getEntityId(), property.getId(), null, value);
+        trackParameter(property, null, value);
         return this;
     }
 
@@ -420,7 +793,9 @@ public class Query<T> implements Closeable {
      * @param alias as defined using {@link QueryBuilder#parameterAlias(String)}.
      */
     public Query<T> setParameter(String alias, long value) {
+        verifyParameterKind(true);
         nativeSetParameter(handle, 0, 0, alias, value);
+        trackParameter(null, alias, value);
         return this;
     }
 
@@ -428,7 +803,9 @@ public class Query<T> implements Closeable {
      * Sets a parameter previously given to the {@link QueryBuilder} to a new value.
      */
     public Query<T> setParameter(Property<?> property, double value) {
+        verifyParameterKind(false);
         nativeSetParameter(handle, property.getEntityId(), property.getId(), null, value);
+        trackParameter(property, null, value);
         return this;
     }
 
@@ -438,7 +815,9 @@ public class Query<T> implements Closeable {
      * @param alias as defined using {@link QueryBuilder#parameterAlias(String)}.
      */
     public Query<T> setParameter(String alias, double value) {
+        verifyParameterKind(true);
         nativeSetParameter(handle, 0, 0, alias, value);
+        trackParameter(null, alias, value);
         return this;
     }
 
@@ -481,7 +860,9 @@ public class Query<T> implements Closeable {
      * Sets a parameter previously given to the {@link QueryBuilder} to new values.
      */
     public Query<T> setParameters(Property<?> property, long value1, long value2) {
+        verifyParameterKind(false);
         nativeSetParameters(handle, property.getEntityId(), property.getId(), null, value1, value2);
+        trackParameter(property, null, value1, value2);
         return this;
     }
 
@@ -491,7 +872,9 @@ public class Query<T> implements Closeable {
      * @param alias as defined using {@link QueryBuilder#parameterAlias(String)}.
      */
     public Query<T> setParameters(String alias, long value1, long value2) {
+        verifyParameterKind(true);
         nativeSetParameters(handle, 0, 0, alias, value1, value2);
+        trackParameter(null, alias, value1, value2);
         return this;
     }
 
@@ -499,7 +882,9 @@ public class Query<T> implements Closeable {
      * Sets a parameter previously given to the {@link QueryBuilder} to new values.
      */
     public Query<T> setParameters(Property<?> property, int[] values) {
+        verifyParameterKind(false);
         nativeSetParameters(handle, property.getEntityId(), property.getId(), null, values);
+        trackParameter(property, null, values);
         return this;
     }
 
@@ -509,7 +894,9 @@ public class Query<T> implements Closeable {
      * @param alias as defined using {@link QueryBuilder#parameterAlias(String)}.
      */
     public Query<T> setParameters(String alias, int[] values) {
+        verifyParameterKind(true);
         nativeSetParameters(handle, 0, 0, alias, values);
+        trackParameter(null, alias, values);
         return this;
     }
 
@@ -517,7 +904,9 @@ public class Query<T> implements Closeable {
      * Sets a parameter previously given to the {@link QueryBuilder} to new values.
      */
     public Query<T> setParameters(Property<?> property, long[] values) {
+        verifyParameterKind(false);
         nativeSetParameters(handle, property.getEntityId(), property.getId(), null, values);
+        trackParameter(property, null, values);
         return this;
     }
 
@@ -527,15 +916,35 @@ public class Query<T> implements Closeable {
      * @param alias as defined using {@link QueryBuilder#parameterAlias(String)}.
      */
     public Query<T> setParameters(String alias, long[] values) {
+        verifyParameterKind(true);
         nativeSetParameters(handle, 0, 0, alias, values);
+        trackParameter(null, alias, values);
         return this;
     }
 
+    /**
+     * Sets a parameter previously given to the {@link QueryBuilder} to new values, e.g. IDs for an "in" condition.
+     */
+    public Query<T> setParameters(Property<?> property, LongCollection values) {
+        return setParameters(property, values.toArray());
+    }
+
+    /**
+     * Sets a parameter previously given to the {@link QueryBuilder} to new values, e.g. IDs for an "in" condition.
+     *
+     * @param alias as defined using {@link QueryBuilder#parameterAlias(String)}.
+     */
+    public Query<T> setParameters(String alias, LongCollection values) {
+        return setParameters(alias, values.toArray());
+    }
+
     /**
      * Sets a parameter previously given to the {@link QueryBuilder} to new values.
      */
     public Query<T> setParameters(Property<?> property, double value1, double value2) {
+        verifyParameterKind(false);
         nativeSetParameters(handle, property.getEntityId(), property.getId(), null, value1, value2);
+        trackParameter(property, null, value1, value2);
         return this;
     }
 
@@ -545,7 +954,9 @@ public class Query<T> implements Closeable {
      * @param alias as defined using {@link QueryBuilder#parameterAlias(String)}.
      */
     public Query<T> setParameters(String alias, double value1, double value2) {
+        verifyParameterKind(true);
         nativeSetParameters(handle, 0, 0, alias, value1, value2);
+        trackParameter(null, alias, value1, value2);
         return this;
     }
 
@@ -553,7 +964,9 @@ public class Query<T> implements Closeable {
      * Sets a parameter previously given to the {@link QueryBuilder} to new values.
      */
     public Query<T> setParameters(Property<?> property, String[] values) {
+        verifyParameterKind(false);
         nativeSetParameters(handle, property.getEntityId(), property.getId(), null, values);
+        trackParameter(property, null, values);
         return this;
     }
 
@@ -563,7 +976,9 @@ public class Query<T> implements Closeable {
      * @param alias as defined using {@link QueryBuilder#parameterAlias(String)}.
      */
     public Query<T> setParameters(String alias, String[] values) {
+        verifyParameterKind(true);
         nativeSetParameters(handle, 0, 0, alias, values);
+        trackParameter(null, alias, values);
         return this;
     }
 
@@ -571,7 +986,9 @@ public class Query<T> implements Closeable {
      * Sets a parameter previously given to the {@link QueryBuilder} to new values.
      */
     public Query<T> setParameters(Property<?> property, String key, String value) {
+        verifyParameterKind(false);
         nativeSetParameters(handle, property.getEntityId(), property.getId(), null, key, value);
+        trackParameter(property, null, key, value);
         return this;
     }
 
@@ -581,7 +998,9 @@ public class Query<T> implements Closeable {
      * @param alias as defined using {@link QueryBuilder#parameterAlias(String)}.
      */
     public Query<T> setParameters(String alias, String key, String value) {
+        verifyParameterKind(true);
         nativeSetParameters(handle, 0, 0, alias, key, value);
+        trackParameter(null, alias, key, value);
         return this;
     }
 
@@ -589,7 +1008,9 @@ public class Query<T> implements Closeable {
      * Sets a parameter previously given to the {@link QueryBuilder} to new values.
      */
     public Query<T> setParameter(Property<?> property, byte[] value) {
+        verifyParameterKind(false);
         nativeSetParameter(handle, property.getEntityId(), property.getId(), null, value);
+        trackParameter(property, null, value);
         return this;
     }
 
@@ -599,7 +1020,9 @@ public class Query<T> implements Closeable {
      * @param alias as defined using {@link QueryBuilder#parameterAlias(String)}.
      */
     public Query<T> setParameter(String alias, byte[] value) {
+        verifyParameterKind(true);
         nativeSetParameter(handle, 0, 0, alias, value);
+        trackParameter(null, alias, value);
         return this;
     }
 
@@ -647,6 +1070,31 @@ public class Query<T> implements Closeable {
         return subscriptionBuilder;
     }
 
+    /**
+     * Like {@link #subscribe()}, but instead of the full result, observers receive {@link QueryChanges}: the IDs of
+     * objects added to, removed from and updated in the query result since the previous notification.
+     * This allows observers to apply changes incrementally instead of processing the full result on each change.
+     * <p>
+     * When subscribing (unless {@link SubscriptionBuilder#onlyChanges()} is used), the observer first receives
+     * {@link QueryChanges#isInitial() initial} changes containing the IDs of the current result.
+     * <p>
+     * Note: does not support a filter set with {@link QueryBuilder#filter(QueryFilter)}.
+     */
+    public SubscriptionBuilder<QueryChanges> subscribeChanges() {
+        ensureNoFilter();
+        QueryChangesPublisher<T> changesPublisher = this.changesPublisher;
+        if (changesPublisher == null) {
+            synchronized (this) {
+                changesPublisher = this.changesPublisher;
+                if (changesPublisher == null) {
+                    changesPublisher = new QueryChangesPublisher<>(this, box);
+                    this.changesPublisher = changesPublisher;
+                }
+            }
+        }
+        return new SubscriptionBuilder<>(changesPublisher, null);
+    }
+
     /**
      * Publishes the current data to all subscribed @{@link DataObserver}s.
      * This is useful triggering observers when new parameters have been set.
@@ -654,6 +1102,25 @@ public class Query<T> implements Closeable {
      */
     public void publish() {
         publisher.publish();
+        QueryChangesPublisher<T> changesPublisher = this.changesPublisher;
+        if (changesPublisher != null) {
+            changesPublisher.publish();
+        }
+    }
+
+    /**
+     * Number of times this query was run to deliver results to subscribed observers.
+     */
+    public long getPublishRunCount() {
+        return publisher.getRunCount();
+    }
+
+    /**
+     * Number of times a change did not need its own query run to deliver results to subscribed observers, because
+     * it was collapsed with other changes, e.g. by {@link SubscriptionBuilder#coalesce(long)}.
+     */
+    public long getPublishSkippedRunCount() {
+        return publisher.getSkippedRunCount();
     }
 
     /**
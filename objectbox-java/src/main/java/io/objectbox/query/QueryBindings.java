@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.query;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.Property;
+import io.objectbox.query.PreparedQuery.PooledQuery;
+
+/**
+ * Parameter values for a single call of a {@link PreparedQuery}, see {@link PreparedQuery#bind(Property, String)}.
+ * <p>
+ * Values are only recorded until one of the find methods or {@link #count()} is called, which then sets them on a
+ * pooled query. Not thread-safe: create an instance per call; it may be used for further calls by the same thread.
+ */
+public class QueryBindings<T> {
+
+    private final PreparedQuery<T> preparedQuery;
+    /** Setters by parameter (see {@link Query#conditionKey}), so binding a parameter again replaces the value. */
+    private final Map<String, Consumer<Query<T>>> bindings = new LinkedHashMap<>();
+
+    QueryBindings(PreparedQuery<T> preparedQuery) {
+        this.preparedQuery = preparedQuery;
+    }
+
+    private QueryBindings<T> add(@Nullable Property<?> property, @Nullable String alias, Consumer<Query<T>> setter) {
+        bindings.put(Query.conditionKey(property, alias), setter);
+        return this;
+    }
+
+    /** See {@link Query#setParameter(Property, String)}. */
+    public QueryBindings<T> bind(Property<?> property, String value) {
+        return add(property, null, query -> query.setParameter(property, value));
+    }
+
+    /** See {@link Query#setParameter(Property, long)}. */
+    public QueryBindings<T> bind(Property<?> property, long value) {
+        return add(property, null, query -> query.setParameter(property, value));
+    }
+
+    /** See {@link Query#setParameter(Property, double)}. */
+    public QueryBindings<T> bind(Property<?> property, double value) {
+        return add(property, null, query -> query.setParameter(property, value));
+    }
+
+    /** See {@link Query#setParameter(Property, Date)}. */
+    public QueryBindings<T> bind(Property<?> property, Date value) {
+        return bind(property, value.getTime());
+    }
+
+    /** See {@link Query#setParameter(Property, boolean)}. */
+    public QueryBindings<T> bind(Property<?> property, boolean value) {
+        return bind(property, value ? 1 : 0);
+    }
+
+    /** See {@link Query#setParameter(Property, byte[])}. */
+    public QueryBindings<T> bind(Property<?> property, byte[] value) {
+        byte[] copy = value.clone();
+        return add(property, null, query -> query.setParameter(property, copy));
+    }
+
+    /** See {@link Query#setParameters(Property, long, long)}. */
+    public QueryBindings<T> bind(Property<?> property, long value1, long value2) {
+        return add(property, null, query -> query.setParameters(property, value1, value2));
+    }
+
+    /** See {@link Query#setParameters(Property, double, double)}. */
+    public QueryBindings<T> bind(Property<?> property, double value1, double value2) {
+        return add(property, null, query -> query.setParameters(property, value1, value2));
+    }
+
+    /** See {@link Query#setParameters(Property, long[])}. */
+    public QueryBindings<T> bind(Property<?> property, long[] values) {
+        long[] copy = values.clone();
+        return add(property, null, query -> query.setParameters(property, copy));
+    }
+
+    /** See {@link Query#setParameters(Property, int[])}. */
+    public QueryBindings<T> bind(Property<?> property, int[] values) {
+        int[] copy = values.clone();
+        return add(property, null, query -> query.setParameters(property, copy));
+    }
+
+    /** See {@link Query#setParameters(Property, String[])}. */
+    public QueryBindings<T> bind(Property<?> property, String[] values) {
+        String[] copy = values.clone();
+        return add(property, null, query -> query.setParameters(property, copy));
+    }
+
+    /** See {@link Query#setParameter(String, String)}. */
+    public QueryBindings<T> bind(String alias, String value) {
+        return add(null, alias, query -> query.setParameter(alias, value));
+    }
+
+    /** See {@link Query#setParameter(String, long)}. */
+    public QueryBindings<T> bind(String alias, long value) {
+        return add(null, alias, query -> query.setParameter(alias, value));
+    }
+
+    /** See {@link Query#setParameter(String, double)}. */
+    public QueryBindings<T> bind(String alias, double value) {
+        return add(null, alias, query -> query.setParameter(alias, value));
+    }
+
+    /** See {@link Query#setParameters(String, long, long)}. */
+    public QueryBindings<T> bind(String alias, long value1, long value2) {
+        return add(null, alias, query -> query.setParameters(alias, value1, value2));
+    }
+
+    /** See {@link Query#setParameters(String, long[])}. */
+    public QueryBindings<T> bind(String alias, long[] values) {
+        long[] copy = values.clone();
+        return add(null, alias, query -> query.setParameters(alias, copy));
+    }
+
+    /** See {@link Query#find()}. */
+    public List<T> find() {
+        return call(Query::find);
+    }
+
+    /** See {@link Query#find(long, long)}. */
+    public List<T> find(long offset, long limit) {
+        return call(query -> query.find(offset, limit));
+    }
+
+    /** See {@link Query#findFirst()}. */
+    @Nullable
+    public T findFirst() {
+        return call(Query::findFirst);
+    }
+
+    /** See {@link Query#findUnique()}. */
+    @Nullable
+    public T findUnique() {
+        return call(Query::findUnique);
+    }
+
+    /** See {@link Query#findIds()}. */
+    public long[] findIds() {
+        return call(Query::findIds);
+    }
+
+    /** See {@link Query#count()}. */
+    public long count() {
+        return call(Query::count);
+    }
+
+    private <R> R call(Function<Query<T>, R> function) {
+        PooledQuery<T> pooled = preparedQuery.acquire(bindings.keySet());
+        boolean parametersSet = false;
+        try {
+            for (Consumer<Query<T>> setter : bindings.values()) {
+                setter.accept(pooled.query);
+            }
+            pooled.boundParameters.addAll(bindings.keySet());
+            parametersSet = true;
+            return function.apply(pooled.query);
+        } finally {
+            if (parametersSet) {
+                preparedQuery.release(pooled);
+            } else {
+                // Parameters may be partially set.
+                pooled.query.close();
+            }
+        }
+    }
+
+}
@@ -18,10 +18,13 @@ package io.objectbox.query;
 
 import io.objectbox.Box;
 import io.objectbox.EntityInfo;
+import io.objectbox.InternalAccess;
 import io.objectbox.Property;
 import io.objectbox.annotation.apihint.Experimental;
 import io.objectbox.annotation.apihint.Internal;
+import io.objectbox.collect.LongHashSet;
 import io.objectbox.exception.DbException;
+import io.objectbox.internal.NativeResourceTracker;
 import io.objectbox.relation.RelationInfo;
 
 import javax.annotation.Nullable;
@@ -137,9 +140,19 @@ public class QueryBuilder<T> implements Closeable {
 
     private final boolean isSubQuery;
 
+    private boolean hasOrder;
+
+    /** Entity type IDs of links, shared with link builders; used for {@link #cacheResults(int)}. */
+    private final LongHashSet linkedEntityTypeIds;
+
+    private int resultCacheMaxEntries;
+
+    /** Releases the native builder if this is not closed; null for sub query builders. */
+    @Nullable private final NativeResourceTracker.Registration trackerRegistration;
+
     private native long nativeCreate(long storeHandle, String entityName);
 
-    private native void nativeDestroy(long handle);
+    private static native void nativeDestroy(long handle);
 
     private native long nativeBuild(long handle);
 
@@ -219,23 +232,18 @@ public class QueryBuilder<T> implements Closeable {
         handle = nativeCreate(storeHandle, entityName);
         if(handle == 0) throw new DbException("Could not create native query builder");
         isSubQuery = false;
+        linkedEntityTypeIds = new LongHashSet();
+        trackerRegistration = NativeResourceTracker.getInstance().register(this, "QueryBuilder", handle,
+                QueryBuilder::nativeDestroy, false, null);
     }
 
-    private QueryBuilder(long storeHandle, long subQueryBuilderHandle) {
+    private QueryBuilder(long storeHandle, long subQueryBuilderHandle, LongHashSet linkedEntityTypeIds) {
         this.box = null;
         this.storeHandle = storeHandle;
         handle = subQueryBuilderHandle;
         isSubQuery = true;
-    }
-
-    /**
-     * Explicitly call {@link #close()} instead to avoid expensive finalization.
-     */
-    @SuppressWarnings("deprecation") // finalize()
-    @Override
-    protected void finalize() throws Throwable {
-        close();
-        super.finalize();
+        this.linkedEntityTypeIds = linkedEntityTypeIds;
+        trackerRegistration = null;
     }
 
     public synchronized void close() {
@@ -243,6 +251,9 @@ public class QueryBuilder<T> implements Closeable {
             // Closeable recommendation: mark as "closed" before nativeDestroy could throw.
             long handleCopy = handle;
             handle = 0;
+            if (trackerRegistration != null) {
+                trackerRegistration.unregister();
+            }
             if (!isSubQuery) {
                 nativeDestroy(handleCopy);
             }
@@ -261,10 +272,50 @@ public class QueryBuilder<T> implements Closeable {
         long queryHandle = nativeBuild(handle);
         if(queryHandle == 0) throw new DbException("Could not create native query");
         Query<T> query = new Query<>(box, queryHandle, eagerRelations, filter, comparator);
+        if (resultCacheMaxEntries > 0) {
+            query.enableResultCache(resultCacheEntityTypeIds(), resultCacheMaxEntries);
+        }
         close();
         return query;
     }
 
+    /**
+     * Builds a query for keyset (seek-based) pagination ordered by the given property, then by ID: each page is
+     * found by a condition on the sort key and ID of the last object of the previous page instead of an offset,
+     * so objects before the page are excluded by the query instead of being found and skipped.
+     * See {@link KeysetQuery} for details.
+     *
+     * @param sortProperty an integer or Date property, ideally indexed, not unsigned. Objects with a null value are
+     *                     not found.
+     * @param flags        0 for ascending order or {@link #DESCENDING}.
+     */
+    public KeysetQuery<T> buildKeysetQuery(Property<T> sortProperty, int flags) {
+        if ((flags & ~DESCENDING) != 0) {
+            throw new IllegalArgumentException("Only the DESCENDING flag is supported");
+        }
+        if (hasOrder) {
+            throw new IllegalStateException("Keyset queries define their own order, do not call order()");
+        }
+        if (filter != null || comparator != null) {
+            throw new IllegalStateException("Keyset queries do not support filter() or sort()");
+        }
+        KeysetQuery.checkSortProperty(sortProperty);
+        if (InternalAccess.isUnsigned(box.getStore(), sortProperty)) {
+            // Sort keys are compared and the first page is seeked as signed.
+            throw new IllegalArgumentException("Unsigned sort properties are not supported: " + sortProperty);
+        }
+        boolean descending = (flags & DESCENDING) != 0;
+        Property<T> idProperty = box.getEntityInfo().getIdProperty();
+        // (sort > key) OR (sort == key AND id > lastId); less for descending order.
+        apply((descending ? sortProperty.less(0) : sortProperty.greater(0)).alias(KeysetQuery.ALIAS_SORT_KEY_PAST)
+                .or(sortProperty.equal(0).alias(KeysetQuery.ALIAS_SORT_KEY_EQUAL)
+                        .and((descending ? idProperty.less(0) : idProperty.greater(0))
+                                .alias(KeysetQuery.ALIAS_ID_PAST))));
+        order(sortProperty, flags);
+        order(idProperty, flags);
+        return new KeysetQuery<>(build(), sortProperty, descending);
+    }
+
     private void verifyNotSubQuery() {
         if (isSubQuery) {
             throw new IllegalStateException("This call is not supported on sub query builders (links)");
@@ -352,6 +403,7 @@ public class QueryBuilder<T> implements Closeable {
                     "An operator is pending. Use operators like and() and or() only between two conditions.");
         }
         nativeOrder(handle, property.getId(), flags);
+        hasOrder = true;
         return this;
     }
 
@@ -396,7 +448,9 @@ public class QueryBuilder<T> implements Closeable {
         int relationId = relationInfo.targetRelationId != 0 ? relationInfo.targetRelationId : relationInfo.relationId;
         long linkQBHandle = nativeLink(handle, storeHandle, relationOwner.getEntityId(), target.getEntityId(),
                 propertyId, relationId, backlink);
-        return new QueryBuilder<>(storeHandle, linkQBHandle);
+        linkedEntityTypeIds.add(relationOwner.getEntityId());
+        linkedEntityTypeIds.add(target.getEntityId());
+        return new QueryBuilder<>(storeHandle, linkQBHandle, linkedEntityTypeIds);
     }
 
     /**
@@ -477,6 +531,56 @@ public class QueryBuilder<T> implements Closeable {
         return this;
     }
 
+    /**
+     * Caches results of {@link Query#find()}, {@link Query#findIds()} and {@link Query#count()} of the built query,
+     * keyed by the current query parameters: repeating a call with the same parameters returns the cached result
+     * without running the query, until a transaction changing objects of this or a linked or eagerly loaded entity
+     * type is committed. If a filter or comparator is set, a commit changing any entity type invalidates results.
+     * <p>
+     * Useful for queries that are run often with a small set of parameter values, e.g. to render a UI.
+     * Results found in a transaction (e.g. within {@link io.objectbox.BoxStore#runInTx(Runnable)}) are not cached.
+     * For {@link Query#find()}, only the IDs of found objects are cached and the objects are read again for each call,
+     * so callers do not share objects.
+     * Parameters of the query must be set either all via properties or all via aliases, otherwise setting a
+     * parameter throws.
+     *
+     * @param maxEntries maximum number of cached results; if exceeded, the least recently used one is dropped.
+     * @see Query#getResultCacheHitCount()
+     */
+    public QueryBuilder<T> cacheResults(int maxEntries) {
+        verifyNotSubQuery();
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        resultCacheMaxEntries = maxEntries;
+        return this;
+    }
+
+    private int[] resultCacheEntityTypeIds() {
+        LongHashSet entityTypeIds = new LongHashSet();
+        if (filter != null || comparator != null) {
+            // May traverse any relation.
+            for (Class<?> entityClass : box.getStore().getAllEntityClasses()) {
+                entityTypeIds.add(box.getStore().getEntityTypeIdOrThrow(entityClass));
+            }
+        } else {
+            entityTypeIds.add(box.getStore().getEntityTypeIdOrThrow(box.getEntityClass()));
+            entityTypeIds.addAll(linkedEntityTypeIds.toArray());
+            if (eagerRelations != null) {
+                for (EagerRelation<T, ?> eagerRelation : eagerRelations) {
+                    entityTypeIds.add(eagerRelation.relationInfo.sourceInfo.getEntityId());
+                    entityTypeIds.add(eagerRelation.relationInfo.targetInfo.getEntityId());
+                }
+            }
+        }
+        long[] ids = entityTypeIds.toArray();
+        int[] result = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            result[i] = (int) ids[i];
+        }
+        return result;
+    }
+
     /**
      * Combines the previous condition with the following condition with a logical OR.
      * <p>
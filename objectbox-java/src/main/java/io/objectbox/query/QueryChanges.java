@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.objectbox.query;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * Changes of the result of a {@link Query} as delivered to observers subscribed via {@link Query#subscribeChanges()}.
+ * All IDs are sorted ascending.
+ * <p>
+ * If {@link #isInitial()} is true, this is the first delivery to an observer (or the previous state is unknown):
+ * {@link #getAddedIds()} then contains all IDs of the current result and the observer should replace any state
+ * it had. Otherwise, the changes are relative to the previously delivered result.
+ * <p>
+ * The same instance is delivered to all observers, so getters return copies of the IDs.
+ */
+public class QueryChanges {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final boolean initial;
+    private final long[] addedIds;
+    private final long[] removedIds;
+    private final long[] updatedIds;
+
+    QueryChanges(boolean initial, long[] addedIds, long[] removedIds, long[] updatedIds) {
+        this.initial = initial;
+        this.addedIds = addedIds;
+        this.removedIds = removedIds;
+        this.updatedIds = updatedIds;
+    }
+
+    /** Creates initial changes containing all given IDs (must be sorted) as added. */
+    static QueryChanges initial(long[] sortedIds) {
+        return new QueryChanges(true, sortedIds, EMPTY, EMPTY);
+    }
+
+    /**
+     * Computes changes from the previous to the current result, both sorted ascending.
+     * IDs contained in both are reported as updated if contained in changedIds (sorted ascending);
+     * if changedIds is null, it is not known which objects changed and all of them are reported as updated.
+     */
+    static QueryChanges diff(long[] previousIds, long[] currentIds, @Nullable long[] changedIds) {
+        long[] added = new long[currentIds.length];
+        long[] removed = new long[previousIds.length];
+        long[] updated = new long[Math.min(previousIds.length, currentIds.length)];
+        int addedCount = 0;
+        int removedCount = 0;
+        int updatedCount = 0;
+        int previousIndex = 0;
+        int currentIndex = 0;
+        while (previousIndex < previousIds.length && currentIndex < currentIds.length) {
+            long previousId = previousIds[previousIndex];
+            long currentId = currentIds[currentIndex];
+            if (previousId == currentId) {
+                if (changedIds == null || Arrays.binarySearch(changedIds, currentId) >= 0) {
+                    updated[updatedCount++] = currentId;
+                }
+                previousIndex++;
+                currentIndex++;
+            } else if (previousId < currentId) {
+                removed[removedCount++] = previousId;
+                previousIndex++;
+            } else {
+                added[addedCount++] = currentId;
+                currentIndex++;
+            }
+        }
+        while (previousIndex < previousIds.length) {
+            removed[removedCount++] = previousIds[previousIndex++];
+        }
+        while (currentIndex < currentIds.length) {
+            added[addedCount++] = currentIds[currentIndex++];
+        }
+        return new QueryChanges(false, trim(added, addedCount), trim(removed, removedCount),
+                trim(updated, updatedCount));
+    }
+
+    private static long[] trim(long[] ids, int count) {
+        if (count == 0) return EMPTY;
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    /** True if this replaces any previous state, see class documentation. */
+    public boolean isInitial() {
+        return initial;
+    }
+
+    /** IDs of objects that were added to the query result. */
+    public long[] getAddedIds() {
+        return addedIds.clone();
+    }
+
+    /** IDs of objects that are no longer part of the query result. */
+    public long[] getRemovedIds() {
+        return removedIds.clone();
+    }
+
+    /**
+     * IDs of objects that remain in the query result, but changed. If it is not known which objects changed
+     * (e.g. after {@link Query#publish()} or a {@link Query#remove()}), these are all remaining objects.
+     */
+    public long[] getUpdatedIds() {
+        return updatedIds.clone();
+    }
+
+    /** True if there are no added, removed or updated IDs. */
+    public boolean isEmpty() {
+        return addedIds.length == 0 && removedIds.length == 0 && updatedIds.length == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryChanges{initial=" + initial
+                + ", added=" + addedIds.length
+                + ", removed=" + removedIds.length
+                + ", updated=" + updatedIds.length + "}";
+    }
+}
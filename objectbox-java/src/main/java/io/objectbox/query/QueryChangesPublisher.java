@@ -0,0 +1,254 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.objectbox.query;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.Box;
+import io.objectbox.ObjectChanges;
+import io.objectbox.annotation.apihint.Internal;
+import io.objectbox.collect.LongArrayList;
+import io.objectbox.reactive.DataObserver;
+import io.objectbox.reactive.DataPublisher;
+import io.objectbox.reactive.DataPublisherUtils;
+import io.objectbox.reactive.DataSubscription;
+
+/**
+ * A {@link DataPublisher} delivering {@link QueryChanges} instead of full results, see
+ * {@link Query#subscribeChanges()}.
+ * <p>
+ * Like {@link QueryPublisher}, it subscribes to changes of the entity type if there is at least one observer and
+ * processes publish requests on a single thread. Each run finds the current result IDs and diffs them against the
+ * IDs found by the previous run, which are shared by all subscribed observers. To report updated objects, the
+ * {@link ObjectChanges} received since the previous run are used.
+ * Observers requesting the latest data get {@link QueryChanges#isInitial() initial} changes instead.
+ * <p>
+ * An observer only gets diffs once it has a state to apply them to: after it got initial changes, or, if it only
+ * subscribed to changes, after the first run that started after it subscribed.
+ */
+@Internal
+class QueryChangesPublisher<T> implements DataPublisher<QueryChanges>, Runnable {
+
+    private final Query<T> query;
+    private final Box<T> box;
+    private final Set<DataObserver<QueryChanges>> observers = new CopyOnWriteArraySet<>();
+    /** Subscribed observers that have a state to apply diffs to. */
+    private final Set<DataObserver<QueryChanges>> diffObservers = new CopyOnWriteArraySet<>();
+    /** Subscribed observers waiting for a run to establish their state; guarded by publishQueue. */
+    private final List<DataObserver<QueryChanges>> pendingDiffObservers = new ArrayList<>();
+    private final Deque<DataObserver<QueryChanges>> publishQueue = new ArrayDeque<>();
+    private volatile boolean publisherRunning = false;
+
+    private static class SubscribedObservers implements DataObserver<QueryChanges> {
+        @Override
+        public void onData(QueryChanges data) {
+        }
+    }
+    /** Placeholder observer to use if all subscribed observers should be notified. */
+    private final SubscribedObservers SUBSCRIBED_OBSERVERS = new SubscribedObservers();
+
+    private DataObserver<ObjectChanges> objectChangesObserver;
+    private DataSubscription objectChangesSubscription;
+
+    /** IDs of objects changed since the last run; guarded by publishQueue. */
+    private final LongArrayList pendingChangedIds = new LongArrayList(16);
+    /** If set, it is unknown which objects changed since the last run; guarded by publishQueue. */
+    private boolean pendingChangesUnknown;
+
+    /** Sorted IDs of the last run, only accessed by the publisher thread; null if unknown. */
+    @Nullable private long[] previousIds;
+    /** Set when the first observer subscribes: changes were not tracked before, previous IDs are outdated. */
+    private volatile boolean resetPreviousIds;
+
+    QueryChangesPublisher(Query<T> query, Box<T> box) {
+        this.query = query;
+        this.box = box;
+    }
+
+    @Override
+    public synchronized void subscribe(DataObserver<QueryChanges> observer, @Nullable Object param) {
+        if (objectChangesObserver == null) {
+            objectChangesObserver = this::onObjectChanges;
+        }
+        if (observers.isEmpty()) {
+            if (objectChangesSubscription != null) {
+                throw new IllegalStateException("Existing subscription found");
+            }
+            // Weak: see QueryPublisher.
+            objectChangesSubscription = box.getStore().subscribeChanges(box.getEntityClass())
+                    .weak()
+                    .onlyChanges()
+                    .observer(objectChangesObserver);
+            // Changes happening before the first observer subscribed were not tracked.
+            resetPreviousIds = true;
+            // Establish IDs to diff against for observers only subscribing to changes.
+            publish();
+        }
+        observers.add(observer);
+        synchronized (publishQueue) {
+            pendingDiffObservers.add(observer);
+        }
+        // A run started after subscribing establishes the state of the observer.
+        queueObserverAndScheduleRun(SUBSCRIBED_OBSERVERS);
+    }
+
+    @Override
+    public void publishSingle(DataObserver<QueryChanges> observer, @Nullable Object param) {
+        queueObserverAndScheduleRun(observer);
+    }
+
+    /** Publishes without knowing which objects changed, e.g. because query parameters changed. */
+    void publish() {
+        synchronized (publishQueue) {
+            pendingChangesUnknown = true;
+        }
+        queueObserverAndScheduleRun(SUBSCRIBED_OBSERVERS);
+    }
+
+    private void onObjectChanges(ObjectChanges changes) {
+        synchronized (publishQueue) {
+            if (!changes.isComplete()) {
+                pendingChangesUnknown = true;
+            } else if (!pendingChangesUnknown) {
+                pendingChangedIds.addAll(changes.getChangedIds());
+            }
+        }
+        queueObserverAndScheduleRun(SUBSCRIBED_OBSERVERS);
+    }
+
+    /**
+     * Non-blocking: will just enqueue the changes for a separate thread.
+     */
+    private void queueObserverAndScheduleRun(DataObserver<QueryChanges> observer) {
+        synchronized (publishQueue) {
+            publishQueue.add(observer);
+            if (!publisherRunning) {
+                publisherRunning = true;
+                box.getStore().internalScheduleThread(this);
+            }
+        }
+    }
+
+    /**
+     * Processes publish requests on a single thread, so changes are computed and delivered in order.
+     */
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                // Get all queued observer(s), stop processing if none.
+                List<DataObserver<QueryChanges>> singlePublishObservers = new ArrayList<>();
+                boolean notifySubscribedObservers = false;
+                long[] changedIds;
+                List<DataObserver<QueryChanges>> newDiffObservers;
+                synchronized (publishQueue) {
+                    // Subscribed before this run, so its result is their state.
+                    newDiffObservers = new ArrayList<>(pendingDiffObservers);
+                    pendingDiffObservers.clear();
+                    // Take changes before querying, so changes committed after are not lost for the next run.
+                    if (pendingChangesUnknown) {
+                        changedIds = null;
+                    } else {
+                        changedIds = pendingChangedIds.toArray();
+                    }
+                    pendingChangesUnknown = false;
+                    pendingChangedIds.clear();
+                    DataObserver<QueryChanges> nextObserver;
+                    while ((nextObserver = publishQueue.poll()) != null) {
+                        if (SUBSCRIBED_OBSERVERS.equals(nextObserver)) {
+                            notifySubscribedObservers = true;
+                        } else {
+                            singlePublishObservers.add(nextObserver);
+                        }
+                    }
+                    if (!notifySubscribedObservers && singlePublishObservers.isEmpty()) {
+                        publisherRunning = false;
+                        break; // Stop.
+                    }
+                }
+
+                // Query.
+                long[] currentIds = query.findIds();
+                Arrays.sort(currentIds);
+                if (resetPreviousIds) {
+                    resetPreviousIds = false;
+                    previousIds = null;
+                }
+
+                // Notify observer(s).
+                if (!singlePublishObservers.isEmpty()) {
+                    QueryChanges initialChanges = QueryChanges.initial(currentIds.clone());
+                    for (DataObserver<QueryChanges> observer : singlePublishObservers) {
+                        observer.onData(initialChanges);
+                    }
+                }
+                // Without previous IDs (first run after subscribing) there is nothing to diff against.
+                if (notifySubscribedObservers && previousIds != null) {
+                    if (changedIds != null) {
+                        Arrays.sort(changedIds);
+                    }
+                    QueryChanges changes = QueryChanges.diff(previousIds, currentIds, changedIds);
+                    if (!changes.isEmpty()) {
+                        // Use current observers to avoid notifying unsubscribed observers; only those ready for diffs.
+                        for (DataObserver<QueryChanges> observer : diffObservers) {
+                            // Already got the latest state, do not apply changes on top.
+                            if (singlePublishObservers.contains(observer)) continue;
+                            observer.onData(changes);
+                        }
+                    }
+                }
+                previousIds = currentIds;
+                // Only now, so they do not get diffs computed against an older state.
+                for (DataObserver<QueryChanges> observer : singlePublishObservers) {
+                    if (observers.contains(observer)) {
+                        diffObservers.add(observer);
+                    }
+                }
+                for (DataObserver<QueryChanges> observer : newDiffObservers) {
+                    if (observers.contains(observer)) {
+                        diffObservers.add(observer);
+                    }
+                }
+            }
+        } finally {
+            // Re-set if wrapped code throws, otherwise this publisher can no longer publish.
+            publisherRunning = false;
+        }
+    }
+
+    @Override
+    public synchronized void unsubscribe(DataObserver<QueryChanges> observer, @Nullable Object param) {
+        DataPublisherUtils.removeObserverFromCopyOnWriteSet(observers, observer);
+        DataPublisherUtils.removeObserverFromCopyOnWriteSet(diffObservers, observer);
+        synchronized (publishQueue) {
+            pendingDiffObservers.removeIf(candidate -> DataPublisherUtils.matchesObserver(candidate, observer));
+        }
+        if (observers.isEmpty()) {
+            objectChangesSubscription.cancel();
+            objectChangesSubscription = null;
+        }
+    }
+
+}
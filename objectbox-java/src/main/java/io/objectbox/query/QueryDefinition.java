@@ -0,0 +1,25 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.query;
+
+/**
+ * Defines a query on a given {@link QueryBuilder}, e.g. adds conditions and sets the order.
+ * Used to (re-)build queries, see {@link PreparedQuery}.
+ */
+public interface QueryDefinition<T> {
+    /** Defines the query using the given builder; must not call {@link QueryBuilder#build()} or close it. */
+    void define(QueryBuilder<T> builder);
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.query;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Date;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.InternalAccess;
+import io.objectbox.Property;
+import io.objectbox.collect.LongObjectMap;
+import io.objectbox.exception.DbException;
+import io.objectbox.exception.NumericOverflowException;
+
+/**
+ * Aggregates values of objects matching a {@link Query} per group of objects with the same key property value.
+ * Create using {@link Query#groupBy(Property)}.
+ * <p>
+ * Only key and value properties are read (within a single read transaction) and no objects are created.
+ * Objects with a null value are ignored, like for {@link PropertyQuery} aggregates. Objects with a null key are
+ * grouped using the key 0 or the value set with {@link #nullKey(long)}.
+ * <p>
+ * Unsigned properties (e.g. annotated with @Unsigned) are not supported as key or aggregated value.
+ */
+public class QueryGroupBy<T> {
+
+    /** Aggregate functions computed per group, see {@link #aggregate(Property, Aggregate)}. */
+    public enum Aggregate {
+        /** Sum of values; a long for integer types (including boolean), otherwise a double. */
+        SUM,
+        MIN,
+        MAX,
+        /** Average of values, always a double. */
+        AVG,
+        /** Count of non-null values; supported for all property types. */
+        COUNT
+    }
+
+    private static class Group {
+        long count;
+        long sumLong;
+        double sumDouble;
+        long minLong = Long.MAX_VALUE;
+        long maxLong = Long.MIN_VALUE;
+        double minDouble = Double.POSITIVE_INFINITY;
+        double maxDouble = Double.NEGATIVE_INFINITY;
+    }
+
+    private final Query<T> query;
+    private final Property<T> keyProperty;
+    private long nullKey;
+
+    QueryGroupBy(Query<T> query, Property<T> keyProperty) {
+        if (!isInteger(keyProperty.type)) {
+            throw new IllegalArgumentException("Key property must be of an integer, boolean or Date type: "
+                    + keyProperty);
+        }
+        if (InternalAccess.isUnsigned(query.box.getStore(), keyProperty)) {
+            throw new IllegalArgumentException("Unsigned key properties are not supported: " + keyProperty);
+        }
+        this.query = query;
+        this.keyProperty = keyProperty;
+    }
+
+    private static boolean isInteger(Class<?> type) {
+        return type == Long.class || type == long.class || type == Date.class
+                || type == Integer.class || type == int.class
+                || type == Short.class || type == short.class
+                || type == Byte.class || type == byte.class
+                || type == Character.class || type == char.class
+                || type == Boolean.class || type == boolean.class;
+    }
+
+    private static boolean isFloatingPoint(Class<?> type) {
+        return type == Float.class || type == float.class || type == Double.class || type == double.class;
+    }
+
+    /** The key used to group objects with a null key, 0 by default. */
+    public QueryGroupBy<T> nullKey(long nullKey) {
+        this.nullKey = nullKey;
+        return this;
+    }
+
+    /**
+     * Computes the given aggregate function over the values of the given property for each group in a single pass.
+     */
+    public GroupAggregates aggregate(Property<T> valueProperty, Aggregate function) {
+        Class<?> valueType = valueProperty.type;
+        boolean floatingPoint = isFloatingPoint(valueType);
+        if (function == Aggregate.COUNT) {
+            QueryProjection.checkSupported(valueProperty);
+        } else if (!floatingPoint && !isInteger(valueType)) {
+            throw new IllegalArgumentException("Property type is not supported for " + function + ": "
+                    + valueProperty);
+        } else if (InternalAccess.isUnsigned(query.box.getStore(), valueProperty)) {
+            // Values would be aggregated as signed.
+            throw new IllegalArgumentException("Unsigned properties are not supported for " + function + ": "
+                    + valueProperty);
+        }
+
+        return query.callInReadTx(() -> {
+            long[] keys = toLongs(QueryProjection.findColumn(query, keyProperty, nullKeyValue()));
+            Object values = findValues(valueProperty, nullMarker(valueType));
+            if (keys.length != Array.getLength(values)) {
+                throw new DbException("Values of " + valueProperty
+                        + " are not aligned with keys of " + keyProperty);
+            }
+            boolean[] isNull = findNulls(valueProperty, values);
+
+            LongObjectMap<Group> groups = new LongObjectMap<>();
+            if (floatingPoint) {
+                double[] doubles = toDoubles(values);
+                for (int i = 0; i < keys.length; i++) {
+                    if (isNull[i]) continue;
+                    Group group = getOrCreate(groups, keys[i]);
+                    double value = doubles[i];
+                    group.count++;
+                    group.sumDouble += value;
+                    group.minDouble = Math.min(group.minDouble, value);
+                    group.maxDouble = Math.max(group.maxDouble, value);
+                }
+            } else if (function != Aggregate.COUNT) {
+                long[] longs = toLongs(values);
+                for (int i = 0; i < keys.length; i++) {
+                    if (isNull[i]) continue;
+                    Group group = getOrCreate(groups, keys[i]);
+                    long value = longs[i];
+                    group.count++;
+                    try {
+                        group.sumLong = Math.addExact(group.sumLong, value);
+                    } catch (ArithmeticException e) {
+                        throw new NumericOverflowException("Sum of " + valueProperty + " exceeds the long range");
+                    }
+                    group.sumDouble += value;
+                    group.minLong = Math.min(group.minLong, value);
+                    group.maxLong = Math.max(group.maxLong, value);
+                }
+            } else {
+                for (int i = 0; i < keys.length; i++) {
+                    if (isNull[i]) continue;
+                    getOrCreate(groups, keys[i]).count++;
+                }
+            }
+            return toResult(groups, function, floatingPoint);
+        });
+    }
+
+    private Object nullKeyValue() {
+        Class<?> type = keyProperty.type;
+        if (type == Boolean.class || type == boolean.class || type == Byte.class || type == byte.class) {
+            return (byte) nullKey;
+        } else if (type == Short.class || type == short.class) {
+            return (short) nullKey;
+        } else if (type == Integer.class || type == int.class || type == Character.class || type == char.class) {
+            return (int) nullKey;
+        }
+        return nullKey;
+    }
+
+    /** Like {@link QueryProjection#findColumn}, but finds booleans as bytes, so null can be neither false or true. */
+    private Object findValues(Property<T> property, Object nullValue) {
+        Class<?> type = property.type;
+        if (type == Boolean.class || type == boolean.class) {
+            return query.property(property).nullValue(nullValue).findBytes();
+        }
+        return QueryProjection.findColumn(query, property, nullValue);
+    }
+
+    /** Value found instead of null, chosen to rarely be an actual value (never for booleans). */
+    private static Object nullMarker(Class<?> type) {
+        if (type == Long.class || type == long.class || type == Date.class) {
+            return Long.MIN_VALUE;
+        } else if (type == Integer.class || type == int.class) {
+            return Integer.MIN_VALUE;
+        } else if (type == Short.class || type == short.class) {
+            return (int) Short.MIN_VALUE;
+        } else if (type == Byte.class || type == byte.class) {
+            return (int) Byte.MIN_VALUE;
+        } else if (type == Character.class || type == char.class) {
+            return (int) Character.MAX_VALUE;
+        } else if (type == Boolean.class || type == boolean.class) {
+            return 2;
+        } else if (type == Float.class || type == float.class) {
+            return -Float.MAX_VALUE;
+        } else if (type == Double.class || type == double.class) {
+            return -Double.MAX_VALUE;
+        }
+        return "\u0000";
+    }
+
+    /** Another value found instead of null, never equal to {@link #nullMarker(Class)}. */
+    private static Object otherNullMarker(Class<?> type) {
+        if (type == Float.class || type == float.class) {
+            return 0f;
+        } else if (type == Double.class || type == double.class) {
+            return 0d;
+        } else if (type == String.class) {
+            return "";
+        }
+        return 0;
+    }
+
+    /**
+     * Returns which of the given values (found using {@link #nullMarker(Class)} for null) are null. Only if an actual
+     * value equals the marker, values are found again using another marker to tell both apart.
+     */
+    private boolean[] findNulls(Property<T> valueProperty, Object values) {
+        Class<?> type = valueProperty.type;
+        int length = Array.getLength(values);
+        boolean[] isNull = findMarkers(values, nullMarker(type));
+        if (isNull == null) {
+            return new boolean[length];
+        }
+        Object valuesOrOtherMarker = findValues(valueProperty, otherNullMarker(type));
+        if (Array.getLength(valuesOrOtherMarker) != length) {
+            throw new DbException("Values of " + valueProperty + " changed while finding them");
+        }
+        boolean[] isMarkerValue = findMarkers(valuesOrOtherMarker, nullMarker(type));
+        if (isMarkerValue != null) {
+            for (int i = 0; i < length; i++) {
+                if (isMarkerValue[i]) isNull[i] = false;
+            }
+        }
+        return isNull;
+    }
+
+    /** Returns at which positions the column contains the given marker, or null if at none. */
+    @Nullable
+    private static boolean[] findMarkers(Object column, Object marker) {
+        int length = Array.getLength(column);
+        boolean[] isMarker = null;
+        if (column instanceof String[]) {
+            String[] strings = (String[]) column;
+            for (int i = 0; i < length; i++) {
+                if (marker.equals(strings[i])) {
+                    if (isMarker == null) isMarker = new boolean[length];
+                    isMarker[i] = true;
+                }
+            }
+        } else if (column instanceof float[] || column instanceof double[]) {
+            double[] doubles = toDoubles(column);
+            double markerDouble = ((Number) marker).doubleValue();
+            for (int i = 0; i < length; i++) {
+                if (doubles[i] == markerDouble) {
+                    if (isMarker == null) isMarker = new boolean[length];
+                    isMarker[i] = true;
+                }
+            }
+        } else {
+            long[] longs = toLongs(column);
+            long markerLong = ((Number) marker).longValue();
+            for (int i = 0; i < length; i++) {
+                if (longs[i] == markerLong) {
+                    if (isMarker == null) isMarker = new boolean[length];
+                    isMarker[i] = true;
+                }
+            }
+        }
+        return isMarker;
+    }
+
+    private static Group getOrCreate(LongObjectMap<Group> groups, long key) {
+        Group group = groups.get(key);
+        if (group == null) {
+            group = new Group();
+            groups.put(key, group);
+        }
+        return group;
+    }
+
+    private static GroupAggregates toResult(LongObjectMap<Group> groups, Aggregate function, boolean floatingPoint) {
+        long[] keys = groups.keys();
+        Arrays.sort(keys);
+        boolean longResult = function == Aggregate.COUNT || (!floatingPoint && function != Aggregate.AVG);
+        long[] longValues = longResult ? new long[keys.length] : null;
+        double[] doubleValues = new double[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            //noinspection ConstantConditions Keys are taken from the map.
+            Group group = groups.get(keys[i]);
+            switch (function) {
+                case SUM:
+                    if (longResult) longValues[i] = group.sumLong;
+                    doubleValues[i] = floatingPoint ? group.sumDouble : group.sumLong;
+                    break;
+                case MIN:
+                    if (longResult) longValues[i] = group.minLong;
+                    doubleValues[i] = floatingPoint ? group.minDouble : group.minLong;
+                    break;
+                case MAX:
+                    if (longResult) longValues[i] = group.maxLong;
+                    doubleValues[i] = floatingPoint ? group.maxDouble : group.maxLong;
+                    break;
+                case AVG:
+                    doubleValues[i] = group.sumDouble / group.count;
+                    break;
+                case COUNT:
+                    longValues[i] = group.count;
+                    doubleValues[i] = group.count;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported aggregate function: " + function);
+            }
+        }
+        return new GroupAggregates(function, keys, longValues, doubleValues);
+    }
+
+    static long[] toLongs(Object column) {
+        if (column instanceof long[]) {
+            return (long[]) column;
+        }
+        int length = Array.getLength(column);
+        long[] longs = new long[length];
+        if (column instanceof int[]) {
+            int[] ints = (int[]) column;
+            for (int i = 0; i < length; i++) longs[i] = ints[i];
+        } else if (column instanceof short[]) {
+            short[] shorts = (short[]) column;
+            for (int i = 0; i < length; i++) longs[i] = shorts[i];
+        } else if (column instanceof byte[]) {
+            byte[] bytes = (byte[]) column;
+            for (int i = 0; i < length; i++) longs[i] = bytes[i];
+        } else if (column instanceof char[]) {
+            char[] chars = (char[]) column;
+            for (int i = 0; i < length; i++) longs[i] = chars[i];
+        } else if (column instanceof boolean[]) {
+            boolean[] booleans = (boolean[]) column;
+            for (int i = 0; i < length; i++) longs[i] = booleans[i] ? 1 : 0;
+        } else {
+            throw new IllegalArgumentException("Not an integer column: " + column.getClass());
+        }
+        return longs;
+    }
+
+    static double[] toDoubles(Object column) {
+        if (column instanceof double[]) {
+            return (double[]) column;
+        }
+        float[] floats = (float[]) column;
+        double[] doubles = new double[floats.length];
+        for (int i = 0; i < floats.length; i++) doubles[i] = floats[i];
+        return doubles;
+    }
+
+}
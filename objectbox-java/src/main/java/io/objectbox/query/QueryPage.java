@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.query;
+
+import java.util.List;
+
+/**
+ * A page of objects found by a {@link KeysetQuery}. Holds the sort key and ID of its last object, which are needed
+ * to find the next page, e.g. to store them in a page token.
+ */
+public class QueryPage<T> {
+
+    private final List<T> items;
+    private final long limit;
+    private final long lastSortKey;
+    private final long lastId;
+
+    QueryPage(List<T> items, long limit, long lastSortKey, long lastId) {
+        this.items = items;
+        this.limit = limit;
+        this.lastSortKey = lastSortKey;
+        this.lastId = lastId;
+    }
+
+    /** The objects of this page. */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /** The maximum number of objects of this page. */
+    public long getLimit() {
+        return limit;
+    }
+
+    /** The sort key of the last object; if this page is empty, the sort key this page was requested after. */
+    public long getLastSortKey() {
+        return lastSortKey;
+    }
+
+    /** The ID of the last object; if this page is empty, the ID this page was requested after. */
+    public long getLastId() {
+        return lastId;
+    }
+
+    /** True if there are no more objects after this page (it has less objects than its limit). */
+    public boolean isLastPage() {
+        return items.size() < limit;
+    }
+
+}
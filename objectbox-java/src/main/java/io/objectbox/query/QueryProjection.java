@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.query;
+
+import java.lang.reflect.Array;
+import java.util.Date;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.Property;
+import io.objectbox.exception.DbException;
+
+/**
+ * Finds the values of multiple properties of all objects matching a {@link Query}, aligned by object:
+ * values at the same index belong to the same object. Create using {@link Query#project(Property[])}.
+ * <p>
+ * Compared to getting all objects, no objects are created and only the projected properties are read.
+ * All columns are read within a single read transaction, so they are consistent with each other.
+ * <p>
+ * As with {@link PropertyQuery}, values do currently not consider any order defined for the {@link Query}.
+ * To keep columns aligned, null values can not be skipped: they are replaced by 0 (false for booleans, an empty
+ * string for strings) unless an alternative value is set using {@link #nullValue(Property, Object)}.
+ */
+public class QueryProjection<T> {
+
+    private final Query<T> query;
+    private final Property<T> idProperty;
+    private final List<Property<T>> properties;
+    private final Object[] nullValues;
+
+    QueryProjection(Query<T> query, Property<T> idProperty, List<Property<T>> properties) {
+        if (properties.isEmpty()) {
+            throw new IllegalArgumentException("At least one property is required");
+        }
+        for (Property<T> property : properties) {
+            checkSupported(property);
+        }
+        this.query = query;
+        this.idProperty = idProperty;
+        this.properties = properties;
+        this.nullValues = new Object[properties.size()];
+    }
+
+    static void checkSupported(Property<?> property) {
+        Class<?> type = property.type;
+        if (type != Long.class && type != long.class && type != Date.class
+                && type != Integer.class && type != int.class
+                && type != Short.class && type != short.class
+                && type != Byte.class && type != byte.class
+                && type != Character.class && type != char.class
+                && type != Boolean.class && type != boolean.class
+                && type != Float.class && type != float.class
+                && type != Double.class && type != double.class
+                && type != String.class) {
+            throw new IllegalArgumentException("Property type is not supported for projections: " + property);
+        }
+    }
+
+    /**
+     * Sets the value used instead of null for the given projected property,
+     * see {@link PropertyQuery#nullValue(Object)}.
+     */
+    public QueryProjection<T> nullValue(Property<T> property, Object nullValue) {
+        //noinspection ConstantConditions Annotation can not enforce non-null.
+        if (nullValue == null) {
+            throw new IllegalArgumentException("Null values are not allowed");
+        }
+        nullValues[indexOf(property)] = nullValue;
+        return this;
+    }
+
+    private int indexOf(Property<T> property) {
+        for (int i = 0; i < properties.size(); i++) {
+            if (properties.get(i).id == property.id) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Property is not projected: " + property);
+    }
+
+    /**
+     * Finds the values of the projected properties (and IDs) of all objects matching the query.
+     */
+    public ProjectionResult<T> find() {
+        return query.callInReadTx(() -> {
+            long[] ids = query.property(idProperty).nullValue(0L).findLongs();
+            Object[] columns = new Object[properties.size()];
+            for (int i = 0; i < properties.size(); i++) {
+                Property<T> property = properties.get(i);
+                columns[i] = findColumn(query, property, nullValues[i]);
+                if (Array.getLength(columns[i]) != ids.length) {
+                    throw new DbException("Projected values of " + property + " are not aligned with IDs");
+                }
+            }
+            return new ProjectionResult<>(ids, properties, columns);
+        });
+    }
+
+    /**
+     * Finds the values of the given property including nulls, replaced by the given value or 0/false/"" if null.
+     * The returned array type depends on the property type, e.g. long[] for long and Date properties.
+     */
+    static <T> Object findColumn(Query<T> query, Property<T> property, @Nullable Object nullValue) {
+        Class<?> type = property.type;
+        if (type == Long.class || type == long.class || type == Date.class) {
+            return query.property(property).nullValue(nullValue != null ? nullValue : 0L).findLongs();
+        } else if (type == Integer.class || type == int.class) {
+            return query.property(property).nullValue(nullValue != null ? nullValue : 0).findInts();
+        } else if (type == Short.class || type == short.class) {
+            return query.property(property).nullValue(nullValue != null ? nullValue : 0).findShorts();
+        } else if (type == Byte.class || type == byte.class) {
+            return query.property(property).nullValue(nullValue != null ? nullValue : 0).findBytes();
+        } else if (type == Character.class || type == char.class) {
+            return query.property(property).nullValue(nullValue != null ? nullValue : 0).findChars();
+        } else if (type == Boolean.class || type == boolean.class) {
+            // Booleans are stored as a single byte.
+            byte[] bytes = query.property(property)
+                    .nullValue(nullValue != null ? toByte(nullValue) : 0)
+                    .findBytes();
+            boolean[] values = new boolean[bytes.length];
+            for (int i = 0; i < bytes.length; i++) {
+                values[i] = bytes[i] != 0;
+            }
+            return values;
+        } else if (type == Float.class || type == float.class) {
+            return query.property(property).nullValue(nullValue != null ? nullValue : 0f).findFloats();
+        } else if (type == Double.class || type == double.class) {
+            return query.property(property).nullValue(nullValue != null ? nullValue : 0d).findDoubles();
+        } else {
+            return query.property(property).nullValue(nullValue != null ? nullValue : "").findStrings();
+        }
+    }
+
+    private static Object toByte(Object nullValue) {
+        if (nullValue instanceof Boolean) {
+            return (Boolean) nullValue ? 1 : 0;
+        }
+        return nullValue;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryProjection{properties=" + properties + "}";
+    }
+}
@@ -20,14 +20,22 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
 import io.objectbox.Box;
 import io.objectbox.BoxStore;
 import io.objectbox.annotation.apihint.Internal;
+import io.objectbox.reactive.CoalescingObserver;
+import io.objectbox.reactive.CoalescingPublisher;
 import io.objectbox.reactive.DataObserver;
 import io.objectbox.reactive.DataPublisher;
 import io.objectbox.reactive.DataPublisherUtils;
@@ -40,15 +48,29 @@ import io.objectbox.reactive.SubscriptionBuilder;
  * {@link SubscriptionBuilder#observer(DataObserver) observed} or {@link Query#publish()} is called.
  * For publishing the query is re-run and the result delivered to the current observers.
  * Results are published on a single thread, one at a time, in the order publishing was requested.
+ * <p>
+ * Observers that {@link SubscriptionBuilder#coalesce(long) coalesce} changes are notified about changes at most once
+ * per their interval. Changes within the interval are delivered once it has passed: instead of waiting, a run is
+ * scheduled for that time, so no thread is blocked meanwhile. The query only runs if at least one observer is
+ * notified, collapsing all publish requests until then into a single query run.
  */
 @Internal
-class QueryPublisher<T> implements DataPublisher<List<T>>, Runnable {
+class QueryPublisher<T> implements DataPublisher<List<T>>, CoalescingPublisher, Runnable {
 
     private final Query<T> query;
     private final Box<T> box;
     private final Set<DataObserver<List<T>>> observers = new CopyOnWriteArraySet<>();
     private final Deque<DataObserver<List<T>>> publishQueue = new ArrayDeque<>();
     private volatile boolean publisherRunning = false;
+    /** Set by the timer once changes for coalescing observers may be due; guarded by publishQueue. */
+    private boolean deferredRunRequested;
+    /** State of coalescing observers, only accessed by the publisher thread (except for removal). */
+    private final Map<DataObserver<List<T>>, CoalesceState> coalesceStates = new ConcurrentHashMap<>();
+    /** If a deferred run is scheduled and when it is due; only accessed by the publisher thread. */
+    private boolean deferredRunScheduled;
+    private long deferredRunDueNanos;
+    private volatile long runCount;
+    private volatile long skippedRunCount;
 
     private static class SubscribedObservers<T> implements DataObserver<List<T>> {
         @Override
@@ -58,6 +80,22 @@ class QueryPublisher<T> implements DataPublisher<List<T>>, Runnable {
     /** Placeholder observer to use if all subscribed observers should be notified. */
     private final SubscribedObservers<T> SUBSCRIBED_OBSERVERS = new SubscribedObservers<>();
 
+    private static final class CoalesceState {
+        /** If there are changes the observer was not notified about yet. */
+        boolean pending;
+        boolean notified;
+        long lastNotifiedNanos;
+    }
+
+    /** Only triggers deferred runs, which then run on the thread pool of the store. */
+    private static final class CoalesceTimer {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ObjectBox-QueryCoalesceTimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     private DataObserver<Class<T>> objectClassObserver;
     private DataSubscription objectClassSubscription;
 
@@ -91,6 +129,21 @@ class QueryPublisher<T> implements DataPublisher<List<T>>, Runnable {
         observers.add(observer);
     }
 
+    private static long coalesceIntervalNanos(DataObserver<?> observer) {
+        return observer instanceof CoalescingObserver
+                ? TimeUnit.MILLISECONDS.toNanos(((CoalescingObserver) observer).getCoalesceIntervalMillis()) : 0;
+    }
+
+    /** Number of times the query was run to publish results. */
+    long getRunCount() {
+        return runCount;
+    }
+
+    /** Number of publish requests for changes that did not need their own query run as they were coalesced. */
+    long getSkippedRunCount() {
+        return skippedRunCount;
+    }
+
     @Override
     public void publishSingle(DataObserver<List<T>> observer, @Nullable Object param) {
         queueObserverAndScheduleRun(observer);
@@ -113,6 +166,30 @@ class QueryPublisher<T> implements DataPublisher<List<T>>, Runnable {
         }
     }
 
+    /** Called by the timer: changes for coalescing observers may be due. */
+    private void requestDeferredRun() {
+        synchronized (publishQueue) {
+            deferredRunRequested = true;
+            if (!publisherRunning) {
+                publisherRunning = true;
+                try {
+                    box.getStore().internalScheduleThread(this);
+                } catch (RejectedExecutionException e) {
+                    // Store was closed meanwhile.
+                    publisherRunning = false;
+                }
+            }
+        }
+    }
+
+    /** Schedules a deferred run, unless one is already scheduled to run at or before the given time. */
+    private void scheduleDeferredRun(long dueNanos, long nowNanos) {
+        if (deferredRunScheduled && deferredRunDueNanos - dueNanos <= 0) return;
+        deferredRunScheduled = true;
+        deferredRunDueNanos = dueNanos;
+        CoalesceTimer.INSTANCE.schedule(this::requestDeferredRun, dueNanos - nowNanos, TimeUnit.NANOSECONDS);
+    }
+
     /**
      * Processes publish requests for this query on a single thread to prevent
      * older query results getting delivered after newer query results.
@@ -125,34 +202,72 @@ class QueryPublisher<T> implements DataPublisher<List<T>>, Runnable {
             while (true) {
                 // Get all queued observer(s), stop processing if none.
                 List<DataObserver<List<T>>> singlePublishObservers = new ArrayList<>();
-                boolean notifySubscribedObservers = false;
+                int changeRequests;
+                boolean deferredRun;
                 synchronized (publishQueue) {
-                    DataObserver<List<T>> nextObserver;
-                    while ((nextObserver = publishQueue.poll()) != null) {
-                        if (SUBSCRIBED_OBSERVERS.equals(nextObserver)) {
-                            notifySubscribedObservers = true;
-                        } else {
-                            singlePublishObservers.add(nextObserver);
-                        }
-                    }
-                    if (!notifySubscribedObservers && singlePublishObservers.isEmpty()) {
+                    changeRequests = pollQueuedObservers(singlePublishObservers);
+                    deferredRun = deferredRunRequested;
+                    deferredRunRequested = false;
+                    if (changeRequests == 0 && !deferredRun && singlePublishObservers.isEmpty()) {
                         publisherRunning = false;
                         break; // Stop.
                     }
                 }
+                if (deferredRun) {
+                    deferredRunScheduled = false;
+                }
+
+                // Coalescing observers notified within their interval get the changes once it has passed.
+                long nowNanos = System.nanoTime();
+                List<DataObserver<List<T>>> notifyObservers = new ArrayList<>();
+                boolean hasDeferred = false;
+                long nextDueNanos = 0;
+                for (DataObserver<List<T>> observer : observers) {
+                    long intervalNanos = coalesceIntervalNanos(observer);
+                    if (intervalNanos == 0) {
+                        if (changeRequests > 0) notifyObservers.add(observer);
+                        continue;
+                    }
+                    CoalesceState state = coalesceStates.computeIfAbsent(observer, key -> new CoalesceState());
+                    if (changeRequests > 0) state.pending = true;
+                    if (!state.pending) continue;
+                    long dueNanos = state.lastNotifiedNanos + intervalNanos;
+                    if (!state.notified || dueNanos - nowNanos <= 0) {
+                        notifyObservers.add(observer);
+                    } else if (!hasDeferred || dueNanos - nextDueNanos < 0) {
+                        hasDeferred = true;
+                        nextDueNanos = dueNanos;
+                    }
+                }
+                if (hasDeferred) {
+                    scheduleDeferredRun(nextDueNanos, nowNanos);
+                }
+                if (notifyObservers.isEmpty() && singlePublishObservers.isEmpty()) {
+                    skippedRunCount += changeRequests;
+                    continue;
+                }
+                if (changeRequests > 1) {
+                    skippedRunCount += changeRequests - 1;
+                }
 
                 // Query.
+                runCount++;
                 List<T> result = query.find();
 
                 // Notify observer(s).
                 for (DataObserver<List<T>> observer : singlePublishObservers) {
                     observer.onData(result);
                 }
-                if (notifySubscribedObservers) {
-                    // Use current list of observers to avoid notifying unsubscribed observers.
-                    Set<DataObserver<List<T>>> observers = this.observers;
-                    for (DataObserver<List<T>> dataObserver : observers) {
-                        dataObserver.onData(result);
+                for (DataObserver<List<T>> observer : notifyObservers) {
+                    CoalesceState state = coalesceStates.get(observer);
+                    if (state != null) {
+                        state.pending = false;
+                        state.notified = true;
+                        state.lastNotifiedNanos = nowNanos;
+                    }
+                    // Skip if unsubscribed meanwhile.
+                    if (observers.contains(observer)) {
+                        observer.onData(result);
                     }
                 }
             }
@@ -162,9 +277,29 @@ class QueryPublisher<T> implements DataPublisher<List<T>>, Runnable {
         }
     }
 
+    /**
+     * Moves queued observers to the given list, except the {@link #SUBSCRIBED_OBSERVERS} placeholder.
+     * Must hold the publishQueue lock.
+     *
+     * @return the number of placeholders polled, so requests to publish to all subscribed observers.
+     */
+    private int pollQueuedObservers(List<DataObserver<List<T>>> singlePublishObservers) {
+        int subscribedObserversRequests = 0;
+        DataObserver<List<T>> nextObserver;
+        while ((nextObserver = publishQueue.poll()) != null) {
+            if (SUBSCRIBED_OBSERVERS.equals(nextObserver)) {
+                subscribedObserversRequests++;
+            } else {
+                singlePublishObservers.add(nextObserver);
+            }
+        }
+        return subscribedObserversRequests;
+    }
+
     @Override
     public synchronized void unsubscribe(DataObserver<List<T>> observer, @Nullable Object param) {
         DataPublisherUtils.removeObserverFromCopyOnWriteSet(observers, observer);
+        coalesceStates.keySet().removeIf(candidate -> DataPublisherUtils.matchesObserver(candidate, observer));
         if (observers.isEmpty()) {
             objectClassSubscription.cancel();
             objectClassSubscription = null;
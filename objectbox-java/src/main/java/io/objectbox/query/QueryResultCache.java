@@ -0,0 +1,222 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.query;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.BoxStore;
+import io.objectbox.annotation.apihint.Internal;
+
+/**
+ * Caches results of a {@link Query} keyed by the kind of result (e.g. find or count) and the current query
+ * parameters, see {@link QueryBuilder#cacheResults(int)}.
+ * <p>
+ * Entries are valid as long as no transaction affecting an entity type the query depends on was committed. To check
+ * this without locks or observers, each entry stores the sum of the {@link BoxStore} commit counters of these entity
+ * types at the time before the result was computed. As counters only increase, a different sum means a relevant
+ * commit happened (the result is then recomputed). Counters are increased before a committing thread returns, so a
+ * thread always sees its own changes.
+ * <p>
+ * The cache is bounded, evicting the least recently used entry.
+ * <p>
+ * Parameters are keyed by property or alias, so the same condition set via both would be keyed differently. Thus
+ * parameters may only be set either via properties or via aliases.
+ */
+@Internal
+class QueryResultCache {
+
+    static final int KIND_FIND = 1;
+    static final int KIND_FIND_IDS = 2;
+    static final int KIND_COUNT = 3;
+
+    private static class CachedResult {
+        final long commitStamp;
+        final Object result;
+
+        CachedResult(long commitStamp, Object result) {
+            this.commitStamp = commitStamp;
+            this.result = result;
+        }
+    }
+
+    /** Key of a parameter set; compares arrays by content. */
+    private static final class ParametersKey {
+        final Object[] values;
+        final int hashCode;
+
+        ParametersKey(Object[] values) {
+            this.values = values;
+            this.hashCode = Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ParametersKey && Arrays.deepEquals(values, ((ParametersKey) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private final BoxStore store;
+    private final int[] entityTypeIds;
+    private final Map<ParametersKey, CachedResult> entries;
+    /** Current parameter values by condition (property or alias), sorted for a stable key. */
+    private final Map<String, Object[]> parameters = new TreeMap<>();
+    @Nullable private ParametersKey currentKey;
+    private boolean hasPropertyParameters;
+    private boolean hasAliasParameters;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    QueryResultCache(BoxStore store, int[] entityTypeIds, int maxEntries) {
+        this.store = store;
+        this.entityTypeIds = entityTypeIds;
+        entries = new LinkedHashMap<ParametersKey, CachedResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ParametersKey, CachedResult> eldest) {
+                if (size() > maxEntries) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Throws if parameters were set the other way (via property or alias) before; call before setting. */
+    synchronized void verifyParameterKind(boolean viaAlias) {
+        if (viaAlias ? hasPropertyParameters : hasAliasParameters) {
+            throw new IllegalStateException("A query caching results must set parameters either via properties or"
+                    + " via aliases, not both");
+        }
+    }
+
+    /** Records new values of a query parameter; arrays are copied. */
+    synchronized void setParameter(String condition, boolean viaAlias, Object[] values) {
+        if (viaAlias) {
+            hasAliasParameters = true;
+        } else {
+            hasPropertyParameters = true;
+        }
+        Object[] copy = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value != null && value.getClass().isArray()) {
+                int length = Array.getLength(value);
+                Object arrayCopy = Array.newInstance(value.getClass().getComponentType(), length);
+                System.arraycopy(value, 0, arrayCopy, 0, length);
+                value = arrayCopy;
+            }
+            copy[i] = value;
+        }
+        parameters.put(condition, copy);
+        currentKey = null;
+    }
+
+    private ParametersKey key(int kind) {
+        // Must hold lock.
+        if (currentKey == null) {
+            Object[] values = new Object[parameters.size() * 2];
+            int index = 0;
+            for (Map.Entry<String, Object[]> parameter : parameters.entrySet()) {
+                values[index++] = parameter.getKey();
+                values[index++] = parameter.getValue();
+            }
+            currentKey = new ParametersKey(values);
+        }
+        return new ParametersKey(new Object[]{kind, currentKey.values});
+    }
+
+    private long commitStamp() {
+        long stamp = 0;
+        for (int entityTypeId : entityTypeIds) {
+            stamp += store.internalEntityTypeCommitCount(entityTypeId);
+        }
+        return stamp;
+    }
+
+    /**
+     * Returns the cached result for the current parameters or computes and caches it.
+     * The caller must not modify the returned result.
+     */
+    <R> R get(int kind, Supplier<R> compute) {
+        return get(kind, compute, Function.identity(), Function.identity());
+    }
+
+    /**
+     * Like {@link #get(int, Supplier)}, but caches only what toCached returns for a computed result (e.g. the IDs of
+     * found objects). For cached entries, the result is restored from it using fromCached.
+     */
+    @SuppressWarnings("unchecked")
+    <R, C> R get(int kind, Supplier<R> compute, Function<R, C> toCached, Function<C, R> fromCached) {
+        // Read the stamp before computing: a concurrent commit then at worst causes a needless miss later.
+        long commitStamp = commitStamp();
+        ParametersKey key;
+        C cachedResult = null;
+        synchronized (this) {
+            key = key(kind);
+            CachedResult cached = entries.get(key);
+            if (cached != null && cached.commitStamp == commitStamp) {
+                hitCount++;
+                cachedResult = (C) cached.result;
+            } else {
+                missCount++;
+            }
+        }
+        if (cachedResult != null) {
+            return fromCached.apply(cachedResult);
+        }
+        R result = compute.get();
+        C toCache = toCached.apply(result);
+        synchronized (this) {
+            entries.put(key, new CachedResult(commitStamp, toCache));
+        }
+        return result;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    synchronized long getMissCount() {
+        return missCount;
+    }
+
+    synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.objectbox.query;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import io.objectbox.BoxStore;
+import io.objectbox.BoxStoreBuilder;
+import io.objectbox.Cursor;
+import io.objectbox.InternalAccess;
+import io.objectbox.ReadSnapshot;
+import io.objectbox.Transaction;
+import io.objectbox.annotation.apihint.Internal;
+
+/**
+ * A {@link Spliterator} over the results of a {@link Query} used by {@link Query#stream()}.
+ * <p>
+ * Binds late: the read transaction is not started before the first element is requested. All elements are then read
+ * from this single read transaction, so the consumer gets a consistent view on the data. Objects are loaded in chunks
+ * of the given size, only the current chunk is held in memory. The transaction is closed once all elements were
+ * consumed or once {@link #close()} is called, e.g. by closing the stream.
+ * <p>
+ * If the calling thread is already inside a transaction (e.g. {@link BoxStore#runInReadTx(Runnable)}),
+ * its transaction is used and left open.
+ * <p>
+ * For parallel streams the range of found IDs is split and each part is traversed by another thread. Each chunk is
+ * then loaded using a read transaction of the thread loading it: there is no snapshot consistency, objects removed
+ * after the IDs were found are skipped and objects may be from different commits. No transaction is kept open
+ * between loading chunks once split, so parts can be closed from any thread.
+ * <p>
+ * If a {@link ReadSnapshot} is given (owned by the caller, who must keep it open), IDs are found and all chunks are
+ * loaded using its read transactions, so all see the same commit.
+ */
+@Internal
+class QuerySpliterator<T> implements Spliterator<T>, Closeable {
+
+    /** State shared by the root spliterator and all spliterators split off it. */
+    private static final class Shared<T> {
+        /** All spliterators split off the root spliterator, closed together with it. */
+        final Queue<QuerySpliterator<T>> splits = new ConcurrentLinkedQueue<>();
+        /** If set, IDs are found and all objects are loaded from it. */
+        @Nullable final ReadSnapshot snapshot;
+
+        Shared(@Nullable ReadSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+
+    private final Query<T> query;
+    private final int chunkSize;
+    @Nullable private final QueryFilter<T> filter;
+    private final Shared<T> shared;
+    private final boolean root;
+
+    /** Only used before splitting. */
+    @Nullable private Transaction ownTx;
+    @Nullable private Cursor<T> cursor;
+    @Nullable private Thread cursorThread;
+    @Nullable private long[] ids;
+    /** Index into ids of the next object to load. */
+    private int position;
+    /** Index into ids after the last object to load. */
+    private int end;
+    /** Once split, the index of an object in the whole result is unknown. */
+    private boolean split;
+    /** If objects are loaded from the transaction the IDs were found with (so all objects must exist). */
+    private boolean idsTx;
+
+    private final Object[] chunk;
+    /** The index into ids for each object in the chunk. */
+    private final int[] chunkPositions;
+    private int chunkIndex;
+    private int chunkCount;
+    /** Count of objects handed out, used to apply eager relation limits. */
+    private int returnedCount;
+
+    private volatile boolean closed;
+
+    QuerySpliterator(Query<T> query, int chunkSize, @Nullable QueryFilter<T> filter) {
+        this(query, chunkSize, filter, null);
+    }
+
+    QuerySpliterator(Query<T> query, int chunkSize, @Nullable QueryFilter<T> filter,
+                     @Nullable ReadSnapshot snapshot) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be 1 or greater but was " + chunkSize);
+        }
+        this.query = query;
+        this.chunkSize = chunkSize;
+        this.filter = filter;
+        shared = new Shared<>(snapshot);
+        root = true;
+        chunk = new Object[chunkSize];
+        chunkPositions = new int[chunkSize];
+    }
+
+    /** Creates a split covering the given range of IDs of the parent. */
+    private QuerySpliterator(QuerySpliterator<T> parent, long[] ids, int position, int end) {
+        query = parent.query;
+        chunkSize = parent.chunkSize;
+        filter = parent.filter;
+        shared = parent.shared;
+        root = false;
+        this.ids = ids;
+        this.position = position;
+        this.end = end;
+        split = true;
+        chunk = new Object[chunkSize];
+        chunkPositions = new int[chunkSize];
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Query stream is closed");
+        }
+    }
+
+    /** Finds the IDs using the cursor of the calling thread, which is kept to load objects, or using the snapshot. */
+    private void bind() {
+        checkNotClosed();
+        ReadSnapshot snapshot = shared.snapshot;
+        if (snapshot != null) {
+            ids = snapshot.callInReadTx(() -> query.nativeFindIds(query.handle,
+                    InternalAccess.getActiveTxCursorHandle(query.box), 0, 0));
+            end = ids.length;
+            return;
+        }
+        Cursor<T> cursor = openCursor();
+        ids = query.nativeFindIds(query.handle, InternalAccess.getHandle(cursor), 0, 0);
+        end = ids.length;
+        idsTx = true;
+    }
+
+    private Cursor<T> openCursor() {
+        Cursor<T> cursor = InternalAccess.getActiveTxCursor(query.box);
+        if (cursor == null) {
+            Transaction tx = query.box.getStore().beginReadTx();
+            try {
+                cursor = tx.createCursor(query.box.getEntityClass());
+            } catch (RuntimeException e) {
+                tx.close();
+                throw e;
+            }
+            ownTx = tx;
+        }
+        this.cursor = cursor;
+        cursorThread = Thread.currentThread();
+        return cursor;
+    }
+
+    private void closeCursor() {
+        if (ownTx != null) {
+            //noinspection ConstantConditions Set together with ownTx.
+            cursor.close();
+            ownTx.close();
+            ownTx = null;
+        }
+        cursor = null;
+        cursorThread = null;
+        idsTx = false;
+    }
+
+    /** Loads the next chunk of objects (skipping filtered ones); returns false if there are no more objects. */
+    private boolean loadChunk() {
+        ReadSnapshot snapshot = shared.snapshot;
+        if (split || snapshot != null) {
+            // Do not keep a transaction between chunks, so it is never used or closed by another thread.
+            Callable<Boolean> load = () -> loadChunk(InternalAccess.getActiveTxCursor(query.box), snapshot != null);
+            return snapshot != null ? snapshot.callInReadTx(load) : query.box.getStore().callInReadTx(load);
+        }
+        Cursor<T> cursor = this.cursor;
+        if (cursor == null || cursorThread != Thread.currentThread()) {
+            closeCursor();
+            cursor = openCursor();
+            idsTx = false;
+        }
+        return loadChunk(cursor, idsTx);
+    }
+
+    private boolean loadChunk(Cursor<T> cursor, boolean allExist) {
+        //noinspection ConstantConditions Only called after bind().
+        long[] ids = this.ids;
+        chunkIndex = 0;
+        chunkCount = 0;
+        while (chunkCount == 0 && position < end) {
+            int chunkEnd = Math.min(position + chunkSize, end);
+            for (; position < chunkEnd; position++) {
+                T entity = cursor.get(ids[position]);
+                if (entity == null) {
+                    if (!allExist) {
+                        continue; // Removed after IDs were found.
+                    }
+                    throw new IllegalStateException("Internal error: data object was null");
+                }
+                if (filter != null && !filter.keep(entity)) {
+                    continue;
+                }
+                chunkPositions[chunkCount] = position;
+                chunk[chunkCount++] = entity;
+            }
+        }
+        return chunkCount > 0;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (ids == null) {
+            bind();
+        } else {
+            checkNotClosed();
+        }
+        if (chunkIndex == chunkCount && !loadChunk()) {
+            finish();
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        T entity = (T) chunk[chunkIndex];
+        // Once split, the index of the result is unknown; use the index of its ID instead.
+        int entityIndex = split ? chunkPositions[chunkIndex] : returnedCount;
+        chunk[chunkIndex++] = null; // Do not hold on to consumed objects.
+        returnedCount++;
+        query.resolveEagerRelation(entity, entityIndex);
+        action.accept(entity);
+        return true;
+    }
+
+    /**
+     * Splits off the first half of the remaining IDs if there are more than two chunks left
+     * and no objects of the current chunk are pending.
+     */
+    @Nullable
+    @Override
+    public Spliterator<T> trySplit() {
+        if (ids == null) {
+            bind();
+        } else {
+            checkNotClosed();
+        }
+        int remaining = end - position;
+        if (remaining <= 2 * chunkSize || chunkIndex != chunkCount) {
+            return null;
+        }
+        int mid = position + (remaining >>> 1);
+        //noinspection ConstantConditions Set by bind().
+        QuerySpliterator<T> prefix = new QuerySpliterator<>(this, ids, position, mid);
+        position = mid;
+        split = true;
+        shared.splits.add(prefix);
+        // The found IDs are now spread across threads, do not keep the read TX of the binding thread.
+        closeCursor();
+        return prefix;
+    }
+
+    /** Exact if no filter is set, otherwise an upper bound. Binds to the read transaction if not done before. */
+    @Override
+    public long estimateSize() {
+        if (ids == null) {
+            if (closed) {
+                return 0;
+            }
+            bind();
+        }
+        return (end - position) + (chunkCount - chunkIndex);
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | NONNULL;
+        if (filter == null) {
+            characteristics |= SIZED | SUBSIZED;
+        }
+        return characteristics;
+    }
+
+    /** Releases resources of this spliterator once exhausted or closed; does not affect other parts. */
+    private void finish() {
+        if (!closed) {
+            closed = true;
+            for (int i = chunkIndex; i < chunkCount; i++) {
+                chunk[i] = null;
+            }
+            chunkIndex = chunkCount = 0;
+            closeCursor();
+        }
+    }
+
+    /**
+     * Closes the read transaction, if one was started for this spliterator.
+     * If this is the root spliterator, also closes all spliterators split off it.
+     */
+    @Override
+    public void close() {
+        finish();
+        if (root) {
+            QuerySpliterator<T> split;
+            while ((split = shared.splits.poll()) != null) {
+                split.close();
+            }
+        } else {
+            shared.splits.remove(this);
+        }
+    }
+}
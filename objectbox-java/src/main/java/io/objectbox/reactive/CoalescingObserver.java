@@ -0,0 +1,29 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.objectbox.reactive;
+
+import io.objectbox.annotation.apihint.Internal;
+
+/**
+ * Implemented by observers subscribed with {@link SubscriptionBuilder#coalesce(long)}, so a publisher can
+ * find out how often the observer wants to be notified about changes at most.
+ */
+@Internal
+public interface CoalescingObserver {
+    /** Minimum time between two change notifications, 0 to be notified about every change. */
+    long getCoalesceIntervalMillis();
+}
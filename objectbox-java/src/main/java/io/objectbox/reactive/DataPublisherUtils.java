@@ -28,21 +28,29 @@ public class DataPublisherUtils {
     public static <T> void removeObserverFromCopyOnWriteSet(Set<DataObserver<T>> observers, DataObserver<T> observer) {
         if (observers != null) {
             for (DataObserver<T> candidate : observers) {
-                if (candidate.equals(observer)) {
+                if (matchesObserver(candidate, observer)) {
                     // Unsupported by CopyOnWriteArraySet: iterator.remove();
                     observers.remove(candidate);
-                } else if (candidate instanceof DelegatingObserver) {
-                    DataObserver<T> delegate = candidate;
-                    while (delegate instanceof DelegatingObserver) {
-                        delegate = ((DelegatingObserver) delegate).getObserverDelegate();
-                    }
-                    if (delegate == null || delegate.equals(observer)) {
-                        // Unsupported by CopyOnWriteArraySet: iterator.remove();
-                        observers.remove(candidate);
-                    }
                 }
             }
         }
     }
 
+    /**
+     * True if the (subscribed) candidate is the given observer, or wraps it using a {@link DelegatingObserver}.
+     * Also true if the candidate wraps an observer that is already gone (e.g. garbage collected weak observer).
+     */
+    public static <T> boolean matchesObserver(DataObserver<T> candidate, DataObserver<T> observer) {
+        if (candidate.equals(observer)) {
+            return true;
+        } else if (candidate instanceof DelegatingObserver) {
+            DataObserver<T> delegate = candidate;
+            while (delegate instanceof DelegatingObserver) {
+                delegate = ((DelegatingObserver) delegate).getObserverDelegate();
+            }
+            return delegate == null || delegate.equals(observer);
+        }
+        return false;
+    }
+
 }
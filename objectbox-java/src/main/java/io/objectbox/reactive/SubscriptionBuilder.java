@@ -32,6 +32,7 @@ import io.objectbox.query.Query;
  * <li>a data transform operation via {@link #transform(DataTransformer)}</li>
  * <li>error handlers via {@link #onError(ErrorObserver)}</li>
  * <li>calling the observer using a custom {@link Scheduler} (e.g. Android main thread) via {@link #on(Scheduler)}</li>
+ * <li>coalescing frequent changes via {@link #coalesce(long)}</li>
  * </ul>
  * <p>
  * Note: the order of methods called in this do not matter.
@@ -52,6 +53,7 @@ public class SubscriptionBuilder<T> {
     private Scheduler scheduler;
     private ErrorObserver errorObserver;
     private DataSubscriptionList dataSubscriptionList;
+    private long coalesceIntervalMillis;
     //    private boolean sync;
 
 
@@ -99,6 +101,22 @@ public class SubscriptionBuilder<T> {
         return this;
     }
 
+    /**
+     * Coalesces change notifications ("latest wins"): the observer is notified at most once per given interval.
+     * Changes happening in between are collapsed into a single notification delivering the latest data.
+     * <p>
+     * For {@link Query} subscriptions this also saves re-running the query for each change, as long as no other
+     * observer of the query needs the result. Other publishers currently do not support this:
+     * {@link #observer(DataObserver)} then throws.
+     */
+    public SubscriptionBuilder<T> coalesce(long minIntervalMillis) {
+        if (minIntervalMillis < 0) {
+            throw new IllegalArgumentException("Interval must be >= 0");
+        }
+        coalesceIntervalMillis = minIntervalMillis;
+        return this;
+    }
+
     //    public Observable<T> sync() {
     //        sync = true;
     //        return this;
@@ -157,6 +175,9 @@ public class SubscriptionBuilder<T> {
      * The returned {@link DataSubscription} must be canceled once the observer should no longer receive data.
      */
     public DataSubscription observer(DataObserver<T> observer) {
+        if (coalesceIntervalMillis > 0 && !(publisher instanceof CoalescingPublisher)) {
+            throw new IllegalStateException("coalesce() is not supported by this publisher");
+        }
         WeakDataObserver<T> weakObserver = null;
         if (weak) {
             observer = weakObserver = new WeakDataObserver<>(observer);
@@ -174,7 +195,7 @@ public class SubscriptionBuilder<T> {
         // TODO FIXME when an observer subscribes twice, it currently won't be added, but we return a new subscription
 
         // Trivial observers do not have to be wrapped
-        if (transformer != null || scheduler != null || errorObserver != null) {
+        if (transformer != null || scheduler != null || errorObserver != null || coalesceIntervalMillis > 0) {
             observer = new ActionObserver(subscription);
         }
 
@@ -199,9 +220,9 @@ public class SubscriptionBuilder<T> {
 
     /**
      * Wraps a {@link DataObserver} supplied to {@link #observer(DataObserver)} to support result
-     * transformation, an error observer or scheduler for result delivery.
+     * transformation, an error observer, scheduler for result delivery or coalescing.
      */
-    class ActionObserver implements DataObserver<T>, DelegatingObserver<T> {
+    class ActionObserver implements DataObserver<T>, DelegatingObserver<T>, CoalescingObserver {
         private final DataSubscriptionImpl subscription;
         private SchedulerRunOnError schedulerRunOnError;
         private SchedulerRunOnChange schedulerRunOnData;
@@ -284,6 +305,11 @@ public class SubscriptionBuilder<T> {
             return observer;
         }
 
+        @Override
+        public long getCoalesceIntervalMillis() {
+            return coalesceIntervalMillis;
+        }
+
         class SchedulerRunOnChange implements RunWithParam<T> {
             @Override
             public void run(T data) {
@@ -39,6 +39,9 @@ import io.objectbox.InternalAccess;
 import io.objectbox.annotation.apihint.Beta;
 import io.objectbox.annotation.apihint.Experimental;
 import io.objectbox.annotation.apihint.Internal;
+import io.objectbox.collect.LongArrayList;
+import io.objectbox.collect.LongCollection;
+import io.objectbox.collect.LongHashSet;
 import io.objectbox.exception.DbDetachedException;
 import io.objectbox.internal.IdGetter;
 import io.objectbox.internal.ReflectionCache;
@@ -410,6 +413,27 @@ public class ToMany<TARGET> implements List<TARGET>, Serializable {
         return null;
     }
 
+    /**
+     * Removes all objects with an entity ID contained in the given IDs, e.g. a {@link LongHashSet}.
+     *
+     * @return true if any object was removed.
+     */
+    public synchronized boolean removeByIds(LongCollection ids) {
+        ensureEntitiesWithTrackingLists();
+        IdGetter<TARGET> idGetter = relationInfo.targetInfo.getIdGetter();
+        boolean changes = false;
+        // Iterate backwards by index as not all List types support Iterator.remove()
+        for (int i = entities.size() - 1; i >= 0; i--) {
+            TARGET target = entities.get(i);
+            if (ids.contains(idGetter.getId(target))) {
+                entities.remove(i);
+                trackRemove(target);
+                changes = true;
+            }
+        }
+        return changes;
+    }
+
     @Override
     public synchronized boolean removeAll(Collection<?> objects) {
         boolean changes = false;
@@ -622,6 +646,19 @@ public class ToMany<TARGET> implements List<TARGET>, Serializable {
         return null;
     }
 
+    /** Gets the entity IDs of all objects in list order; objects not put yet have ID 0. */
+    public LongArrayList getTargetIds() {
+        ensureEntities();
+        @SuppressWarnings("unchecked") // Can't toArray(new TARGET[0]).
+        TARGET[] objects = (TARGET[]) entities.toArray();
+        IdGetter<TARGET> idGetter = relationInfo.targetInfo.getIdGetter();
+        LongArrayList ids = new LongArrayList(objects.length);
+        for (TARGET target : objects) {
+            ids.add(idGetter.getId(target));
+        }
+        return ids;
+    }
+
     /** Gets the index of the object with the given entity ID. */
     @Beta
     public int indexOfId(long id) {
@@ -833,7 +870,7 @@ public class ToMany<TARGET> implements List<TARGET>, Serializable {
         }
         if (toPut != null) {
             for (TARGET target : toPut) {
-                targetCursor.put(target);
+                InternalAccess.trackChanged(targetCursor, targetCursor.put(target));
             }
         }
 
@@ -24,6 +24,7 @@ import javax.annotation.Nullable;
 import io.objectbox.Box;
 import io.objectbox.BoxStore;
 import io.objectbox.Cursor;
+import io.objectbox.InternalAccess;
 import io.objectbox.annotation.apihint.Internal;
 import io.objectbox.exception.DbDetachedException;
 import io.objectbox.internal.ReflectionCache;
@@ -297,6 +298,7 @@ public class ToOne<TARGET> implements Serializable {
     public void internalPutTarget(Cursor<TARGET> targetCursor) {
         checkIdOfTargetForPut = false;
         long id = targetCursor.put(target);
+        InternalAccess.trackChanged(targetCursor, id);
         setTargetId(id);
         setResolvedTarget(target, id);
     }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.objectbox.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.objectbox.BoxStore;
+import io.objectbox.BoxStoreBuilder;
+import io.objectbox.ModelBuilder;
+import io.objectbox.ModelBuilder.EntityBuilder;
+import io.objectbox.TestEntity;
+import io.objectbox.TestEntity_;
+import io.objectbox.model.PropertyFlags;
+import io.objectbox.model.PropertyType;
+
+/**
+ * Creates stores for the generated {@link TestEntity} model, like the unit tests do.
+ * Benchmarks should open a store once per trial and delete it on tear down.
+ */
+public class BenchmarkStore {
+
+    private BenchmarkStore() {
+    }
+
+    public static File prepareTempDir(String prefix) throws IOException {
+        File tempFile = File.createTempFile(prefix, "");
+        if (!tempFile.delete()) {
+            throw new IOException("Could not prep temp dir; file delete failed for " + tempFile.getAbsolutePath());
+        }
+        return tempFile;
+    }
+
+    public static BoxStore createStore(File directory) {
+        return createStoreBuilder(directory).build();
+    }
+
+    public static BoxStoreBuilder createStoreBuilder(File directory) {
+        BoxStoreBuilder builder = new BoxStoreBuilder(createTestModel()).directory(directory);
+        builder.entity(new TestEntity_());
+        return builder;
+    }
+
+    public static void closeAndDelete(BoxStore store) {
+        store.close();
+        if (!store.deleteAllFiles()) {
+            System.err.println("Could not delete all files of benchmark store");
+        }
+    }
+
+    /** Mirrors the TestEntity model used by AbstractObjectBoxTest (without indexes). */
+    static byte[] createTestModel() {
+        long lastUid = 0;
+        ModelBuilder modelBuilder = new ModelBuilder();
+        long entityUid = ++lastUid;
+        EntityBuilder entityBuilder = modelBuilder.entity("TestEntity").id(1, entityUid);
+        entityBuilder.property("id", PropertyType.Long).id(TestEntity_.id.id, ++lastUid)
+                .flags(PropertyFlags.ID);
+        entityBuilder.property("simpleBoolean", PropertyType.Bool).id(TestEntity_.simpleBoolean.id, ++lastUid);
+        entityBuilder.property("simpleByte", PropertyType.Byte).id(TestEntity_.simpleByte.id, ++lastUid);
+        entityBuilder.property("simpleShort", PropertyType.Short).id(TestEntity_.simpleShort.id, ++lastUid);
+        entityBuilder.property("simpleInt", PropertyType.Int).id(TestEntity_.simpleInt.id, ++lastUid);
+        entityBuilder.property("simpleLong", PropertyType.Long).id(TestEntity_.simpleLong.id, ++lastUid);
+        entityBuilder.property("simpleFloat", PropertyType.Float).id(TestEntity_.simpleFloat.id, ++lastUid);
+        entityBuilder.property("simpleDouble", PropertyType.Double).id(TestEntity_.simpleDouble.id, ++lastUid);
+        entityBuilder.property("simpleString", PropertyType.String).id(TestEntity_.simpleString.id, ++lastUid);
+        entityBuilder.property("simpleByteArray", PropertyType.ByteVector).id(TestEntity_.simpleByteArray.id, ++lastUid);
+        entityBuilder.property("simpleStringArray", PropertyType.StringVector).id(TestEntity_.simpleStringArray.id, ++lastUid);
+        entityBuilder.property("simpleStringList", PropertyType.StringVector).id(TestEntity_.simpleStringList.id, ++lastUid)
+                .flags(PropertyFlags.NON_PRIMITIVE_TYPE);
+        entityBuilder.property("simpleShortU", PropertyType.Short).id(TestEntity_.simpleShortU.id, ++lastUid)
+                .flags(PropertyFlags.UNSIGNED);
+        entityBuilder.property("simpleIntU", PropertyType.Int).id(TestEntity_.simpleIntU.id, ++lastUid)
+                .flags(PropertyFlags.UNSIGNED);
+        entityBuilder.property("simpleLongU", PropertyType.Long).id(TestEntity_.simpleLongU.id, ++lastUid)
+                .flags(PropertyFlags.UNSIGNED);
+        entityBuilder.property("stringObjectMap", PropertyType.Flex).id(TestEntity_.stringObjectMap.id, ++lastUid);
+        entityBuilder.property("flexProperty", PropertyType.Flex).id(TestEntity_.flexProperty.id, ++lastUid);
+        entityBuilder.lastPropertyId(TestEntity_.flexProperty.id, lastUid);
+        entityBuilder.entityDone();
+        modelBuilder.lastEntityId(1, entityUid);
+        return modelBuilder.build();
+    }
+
+    /** Like AbstractObjectBoxTest#createTestEntity(String, int), but without flex properties. */
+    public static TestEntity createTestEntity(int nr) {
+        String simpleString = "foo" + nr;
+        TestEntity entity = new TestEntity();
+        entity.setSimpleString(simpleString);
+        entity.setSimpleInt(nr);
+        entity.setSimpleByte((byte) (10 + nr));
+        entity.setSimpleBoolean(nr % 2 == 0);
+        entity.setSimpleShort((short) (100 + nr));
+        entity.setSimpleLong(1000 + nr);
+        entity.setSimpleFloat(200 + nr / 10f);
+        entity.setSimpleDouble(2000 + nr / 100f);
+        entity.setSimpleByteArray(new byte[]{1, 2, (byte) nr});
+        String[] stringArray = {simpleString};
+        entity.setSimpleStringArray(stringArray);
+        entity.setSimpleStringList(Arrays.asList(stringArray));
+        entity.setSimpleShortU((short) (100 + nr));
+        entity.setSimpleIntU(nr);
+        entity.setSimpleLongU(1000 + nr);
+        return entity;
+    }
+
+    public static List<TestEntity> createTestEntities(int count) {
+        List<TestEntity> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entities.add(createTestEntity(i));
+        }
+        return entities;
+    }
+
+    /** Returns the IDs of the given (put) entities in random order to avoid sequential access patterns. */
+    public static long[] shuffledIds(List<TestEntity> entities) {
+        List<Long> ids = new ArrayList<>(entities.size());
+        for (TestEntity entity : entities) {
+            ids.add(entity.getId());
+        }
+        Collections.shuffle(ids);
+        long[] result = new long[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+}
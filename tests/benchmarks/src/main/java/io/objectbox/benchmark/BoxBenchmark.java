@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.objectbox.Box;
+import io.objectbox.BoxStore;
+import io.objectbox.TestEntity;
+import io.objectbox.collect.LongObjectMap;
+
+/**
+ * Benchmarks {@link Box} operations that cross the JNI boundary once per object or once per call.
+ * <p>
+ * Puts overwrite existing objects (IDs are already assigned), so the store size stays constant across iterations.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoxBenchmark {
+
+    @Param({"1000", "10000"})
+    public int count;
+
+    private File directory;
+    private BoxStore store;
+    private Box<TestEntity> box;
+    private List<TestEntity> entities;
+    private long[] ids;
+    private List<Long> idList;
+    private int nextIdIndex;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = BenchmarkStore.prepareTempDir("objectbox-benchmark");
+        store = BenchmarkStore.createStore(directory);
+        box = store.boxFor(TestEntity.class);
+        entities = BenchmarkStore.createTestEntities(count);
+        box.put(entities);
+        ids = BenchmarkStore.shuffledIds(entities);
+        idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkStore.closeAndDelete(store);
+    }
+
+    @Benchmark
+    public long putSingle() {
+        TestEntity entity = entities.get(nextIdIndex++ % count);
+        return box.put(entity);
+    }
+
+    @Benchmark
+    public void putCollection() {
+        box.put(entities);
+    }
+
+    @Benchmark
+    public TestEntity getSingle() {
+        return box.get(ids[nextIdIndex++ % count]);
+    }
+
+    @Benchmark
+    public List<TestEntity> getArray() {
+        return box.get(ids);
+    }
+
+    @Benchmark
+    public List<TestEntity> getIterable() {
+        return box.get(idList);
+    }
+
+    /** Gets each object in its own call, so each get renews the read transaction; compare with {@link #getArray()}. */
+    @Benchmark
+    public List<TestEntity> getArrayEach() {
+        List<TestEntity> list = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            list.add(box.get(id));
+        }
+        return list;
+    }
+
+    @Benchmark
+    public Map<Long, TestEntity> getMap() {
+        return box.getMap(idList);
+    }
+
+    @Benchmark
+    public LongObjectMap<TestEntity> getMapArray() {
+        return box.getMap(ids);
+    }
+
+    @Benchmark
+    public List<TestEntity> getAll() {
+        return box.getAll();
+    }
+
+    @Benchmark
+    public long count() {
+        return box.count();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.objectbox.BoxStore;
+import io.objectbox.Cursor;
+import io.objectbox.TestEntity;
+import io.objectbox.Transaction;
+
+/**
+ * Benchmarks the low-level {@link Cursor} API of the generated TestEntityCursor without the {@link io.objectbox.Box}
+ * wrapper, e.g. to isolate the cost of the collect calls of a put from transaction handling.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CursorBenchmark {
+
+    @Param({"1000"})
+    public int count;
+
+    private File directory;
+    private BoxStore store;
+    private List<TestEntity> entities;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = BenchmarkStore.prepareTempDir("objectbox-benchmark");
+        store = BenchmarkStore.createStore(directory);
+        entities = BenchmarkStore.createTestEntities(count);
+        store.boxFor(TestEntity.class).put(entities);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkStore.closeAndDelete(store);
+    }
+
+    @Benchmark
+    public void put() {
+        Transaction tx = store.beginTx();
+        try (Cursor<TestEntity> cursor = tx.createCursor(TestEntity.class)) {
+            for (TestEntity entity : entities) {
+                cursor.put(entity);
+            }
+        }
+        tx.commitAndClose();
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        Transaction tx = store.beginReadTx();
+        try (Cursor<TestEntity> cursor = tx.createCursor(TestEntity.class)) {
+            for (TestEntity entity = cursor.first(); entity != null; entity = cursor.next()) {
+                blackhole.consume(entity);
+            }
+        } finally {
+            tx.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.objectbox.Box;
+import io.objectbox.BoxStore;
+import io.objectbox.TestEntity;
+import io.objectbox.TestEntity_;
+import io.objectbox.Transaction;
+import io.objectbox.query.Query;
+
+/**
+ * Measures creating many short-lived native resources as done when handling requests: read transactions and
+ * queries built per request. Objects are either closed or left for the native resource tracker (not closed).
+ * <p>
+ * Run with the GC profiler ({@code -prof gc}) to compare GC count and time: closed objects are no longer kept
+ * alive for finalization, which also shows in throughput when compared to a build still using finalize().
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx256m"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class NativeCleanupBenchmark {
+
+    private static final int COUNT = 1000;
+
+    private File directory;
+    private BoxStore store;
+    private Box<TestEntity> box;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = BenchmarkStore.prepareTempDir("objectbox-benchmark");
+        store = BenchmarkStore.createStore(directory);
+        box = store.boxFor(TestEntity.class);
+        box.put(BenchmarkStore.createTestEntities(COUNT));
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkStore.closeAndDelete(store);
+    }
+
+    @Benchmark
+    public boolean readTxClosed() {
+        Transaction tx = store.beginReadTx();
+        try {
+            return tx.isActive();
+        } finally {
+            tx.close();
+        }
+    }
+
+    @Benchmark
+    public TestEntity queryClosed() {
+        Query<TestEntity> query = buildQuery();
+        try {
+            return query.findFirst();
+        } finally {
+            query.close();
+        }
+    }
+
+    @Benchmark
+    public TestEntity queryNotClosed() {
+        return buildQuery().findFirst();
+    }
+
+    private Query<TestEntity> buildQuery() {
+        int value = ThreadLocalRandom.current().nextInt(COUNT);
+        return box.query(TestEntity_.simpleInt.equal(value)).build();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.benchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.objectbox.Box;
+import io.objectbox.BoxStore;
+import io.objectbox.TestEntity;
+import io.objectbox.reactive.DataSubscription;
+
+/**
+ * Measures the latency from committing a put until entity class observers are notified with many concurrent
+ * writers and many subscribed observers.
+ * <p>
+ * Each put is one commit and thus one notification per observer. A probe observer counts notifications; a writer
+ * waits until the notification count reached the number of puts started up to and including its own.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ObjectClassPublisherBenchmark {
+
+    @Param({"1", "1000"})
+    public int observerCount;
+
+    private File directory;
+    private BoxStore store;
+    private Box<TestEntity> box;
+    private final AtomicLong putsStarted = new AtomicLong();
+    private final AtomicLong notified = new AtomicLong();
+    private final List<DataSubscription> subscriptions = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = BenchmarkStore.prepareTempDir("objectbox-benchmark");
+        store = BenchmarkStore.createStore(directory);
+        box = store.boxFor(TestEntity.class);
+
+        subscriptions.add(store.subscribe(TestEntity.class).onlyChanges()
+                .observer(data -> notified.incrementAndGet()));
+        for (int i = 1; i < observerCount; i++) {
+            subscriptions.add(store.subscribe(TestEntity.class).onlyChanges()
+                    .observer(data -> {
+                    }));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (DataSubscription subscription : subscriptions) {
+            subscription.cancel();
+        }
+        subscriptions.clear();
+        BenchmarkStore.closeAndDelete(store);
+    }
+
+    @Benchmark
+    public void putToClassObservers() {
+        long target = putsStarted.incrementAndGet();
+        box.put(BenchmarkStore.createTestEntity((int) target));
+        while (notified.get() < target) {
+            Thread.yield();
+        }
+    }
+}
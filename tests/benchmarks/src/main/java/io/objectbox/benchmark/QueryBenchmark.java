@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import io.objectbox.Box;
+import io.objectbox.BoxStore;
+import io.objectbox.TestEntity;
+import io.objectbox.TestEntity_;
+import io.objectbox.query.LazyList;
+import io.objectbox.query.Query;
+
+/**
+ * Benchmarks {@link Query} and {@link io.objectbox.query.PropertyQuery} operations.
+ * The query matches half of all objects.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    @Param({"10000"})
+    public int count;
+
+    private File directory;
+    private BoxStore store;
+    private Query<TestEntity> query;
+    private LazyList<TestEntity> lazyList;
+    private int nextIndex;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = BenchmarkStore.prepareTempDir("objectbox-benchmark");
+        store = BenchmarkStore.createStore(directory);
+        Box<TestEntity> box = store.boxFor(TestEntity.class);
+        box.put(BenchmarkStore.createTestEntities(count));
+        query = box.query(TestEntity_.simpleInt.less(count / 2)).build();
+        lazyList = query.findLazy();
+    }
+
+    @TearDown
+    public void tearDown() {
+        query.close();
+        BenchmarkStore.closeAndDelete(store);
+    }
+
+    @Benchmark
+    public List<TestEntity> find() {
+        return query.find();
+    }
+
+    @Benchmark
+    public List<TestEntity> findParallel() {
+        return query.findParallel();
+    }
+
+    @Benchmark
+    public long[] findIds() {
+        return query.findIds();
+    }
+
+    @Benchmark
+    public TestEntity findFirst() {
+        return query.findFirst();
+    }
+
+    @Benchmark
+    public long count() {
+        return query.count();
+    }
+
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        query.forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) {
+        try (Stream<TestEntity> stream = query.stream()) {
+            stream.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public long[] propertyFindLongs() {
+        return query.property(TestEntity_.simpleLong).findLongs();
+    }
+
+    @Benchmark
+    public long propertySum() {
+        return query.property(TestEntity_.simpleLong).sum();
+    }
+
+    @Benchmark
+    public TestEntity lazyListGet() {
+        return lazyList.get(nextIndex++ % lazyList.size());
+    }
+}
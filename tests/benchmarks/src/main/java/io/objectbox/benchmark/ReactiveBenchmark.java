@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import io.objectbox.Box;
+import io.objectbox.BoxStore;
+import io.objectbox.TestEntity;
+import io.objectbox.TestEntity_;
+import io.objectbox.query.Query;
+import io.objectbox.reactive.DataSubscription;
+
+/**
+ * Measures the latency from committing a put until observers are notified,
+ * for both a plain entity class observer and a query observer (which re-runs the query).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReactiveBenchmark {
+
+    @Param({"1000"})
+    public int count;
+
+    private File directory;
+    private BoxStore store;
+    private Box<TestEntity> box;
+    private Query<TestEntity> query;
+    private TestEntity entity;
+    private final Semaphore classNotified = new Semaphore(0);
+    private final Semaphore queryNotified = new Semaphore(0);
+    private DataSubscription classSubscription;
+    private DataSubscription querySubscription;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = BenchmarkStore.prepareTempDir("objectbox-benchmark");
+        store = BenchmarkStore.createStore(directory);
+        box = store.boxFor(TestEntity.class);
+        box.put(BenchmarkStore.createTestEntities(count));
+        entity = BenchmarkStore.createTestEntity(count);
+        box.put(entity);
+        query = box.query(TestEntity_.simpleInt.less(count / 2)).build();
+
+        classSubscription = store.subscribe(TestEntity.class).onlyChanges()
+                .observer(data -> classNotified.release());
+        querySubscription = query.subscribe().onlyChanges()
+                .observer(data -> queryNotified.release());
+    }
+
+    @TearDown
+    public void tearDown() {
+        classSubscription.cancel();
+        querySubscription.cancel();
+        query.close();
+        BenchmarkStore.closeAndDelete(store);
+    }
+
+    @Benchmark
+    public void putToClassObserver() throws InterruptedException {
+        box.put(entity);
+        classNotified.acquire();
+    }
+
+    @Benchmark
+    public void putToQueryObserver() throws InterruptedException {
+        box.put(entity);
+        queryNotified.acquire();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.objectbox.BoxStore;
+import io.objectbox.TestEntity;
+import io.objectbox.Transaction;
+
+/**
+ * Measures beginning and closing read transactions with an increasing number of threads. Each transaction is
+ * registered with and unregistered from the store, so throughput should scale with the thread count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionBenchmark {
+
+    private File directory;
+    private BoxStore store;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = BenchmarkStore.prepareTempDir("objectbox-benchmark");
+        store = BenchmarkStore.createStore(directory);
+        store.boxFor(TestEntity.class).put(BenchmarkStore.createTestEntities(100));
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkStore.closeAndDelete(store);
+    }
+
+    private boolean readTx() {
+        Transaction tx = store.beginReadTx();
+        try {
+            return tx.isActive();
+        } finally {
+            tx.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean readTx1Thread() {
+        return readTx();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean readTx4Threads() {
+        return readTx();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean readTx16Threads() {
+        return readTx();
+    }
+}
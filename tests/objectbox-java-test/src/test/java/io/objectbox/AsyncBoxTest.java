@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.objectbox;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncBoxTest extends AbstractObjectBoxTest {
+
+    @Test
+    public void async_sameInstance() {
+        Box<TestEntity> box = getTestEntityBox();
+        assertSame(box.async(), box.async());
+        assertSame(box, box.async().getBox());
+    }
+
+    @Test
+    public void putAndRemove() throws Exception {
+        AsyncBox<TestEntity> asyncBox = getTestEntityBox().async();
+        TestEntity entity = createTestEntity("async", 42);
+        long id = asyncBox.put(entity).get(10, TimeUnit.SECONDS);
+        assertTrue(id != 0);
+        assertEquals(id, entity.getId());
+
+        TestEntity read = getTestEntityBox().get(id);
+        assertNotNull(read);
+        assertEquals("async", read.getSimpleString());
+
+        assertTrue(asyncBox.remove(id).get(10, TimeUnit.SECONDS));
+        assertFalse(asyncBox.remove(id).get(10, TimeUnit.SECONDS));
+        assertEquals(0, getTestEntityBox().count());
+    }
+
+    @Test
+    public void put_manyThreads_allCommitted() throws Exception {
+        AsyncBox<TestEntity> asyncBox = getTestEntityBox().async();
+        int threadCount = 4;
+        int countPerThread = 500;
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            int threadNr = t;
+            new Thread(() -> {
+                List<CompletableFuture<Long>> threadFutures = new ArrayList<>();
+                for (int i = 0; i < countPerThread; i++) {
+                    threadFutures.add(asyncBox.put(createTestEntity("t" + threadNr, i)));
+                }
+                synchronized (futures) {
+                    futures.addAll(threadFutures);
+                }
+                latch.countDown();
+            }).start();
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(threadCount * countPerThread, getTestEntityBox().count());
+    }
+
+    @Test
+    public void batch_failedOperation_notCommitted() throws Exception {
+        AsyncWriteQueue writeQueue = store.getAsyncWriteQueue();
+        AsyncBox<TestEntity> asyncBox = getTestEntityBox().async();
+        // Block the writer, so all following operations end up in one batch.
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocker = writeQueue.submit(() -> awaitUninterruptibly(release));
+        TestEntity first = createTestEntity("first", 1);
+        CompletableFuture<Long> firstPut = asyncBox.put(first);
+        CompletableFuture<Long> failing = writeQueue.submit(() -> {
+            getTestEntityBox().put(createTestEntity("failing", 2));
+            throw new IllegalStateException("Failed after put");
+        });
+        TestEntity last = createTestEntity("last", 3);
+        CompletableFuture<Long> lastPut = asyncBox.put(last);
+        release.countDown();
+
+        assertTrue(blocker.get(10, TimeUnit.SECONDS));
+        long firstId = firstPut.get(10, TimeUnit.SECONDS);
+        long lastId = lastPut.get(10, TimeUnit.SECONDS);
+        try {
+            failing.get(10, TimeUnit.SECONDS);
+            fail("Should have thrown");
+        } catch (ExecutionException e) {
+            assertEquals("Failed after put", e.getCause().getMessage());
+        }
+        assertEquals(2, getTestEntityBox().count());
+        assertEquals(firstId, first.getId());
+        assertEquals(lastId, last.getId());
+        assertEquals("first", getTestEntityBox().get(firstId).getSimpleString());
+        assertEquals("last", getTestEntityBox().get(lastId).getSimpleString());
+    }
+
+    @Test
+    public void submit_fullQueueOnWriterThread_failsFast() throws Exception {
+        store.close();
+        store = createBoxStoreBuilder(null).asyncWriteQueueCapacity(1).build();
+        AsyncWriteQueue writeQueue = store.getAsyncWriteQueue();
+        AsyncBox<TestEntity> asyncBox = getTestEntityBox().async();
+
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<CompletableFuture<Long>> dependent = writeQueue
+                .submit(() -> awaitUninterruptibly(release))
+                // Runs on the writer thread once completed: first put fills the queue, second can not wait.
+                .thenApply(released -> {
+                    asyncBox.put(createTestEntity("queued", 1));
+                    return asyncBox.put(createTestEntity("rejected", 2));
+                });
+        release.countDown();
+
+        CompletableFuture<Long> rejected = dependent.get(10, TimeUnit.SECONDS);
+        try {
+            rejected.get(10, TimeUnit.SECONDS);
+            fail("Should have thrown");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    private static boolean awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void put_closedStore_throws() {
+        AsyncBox<TestEntity> asyncBox = getTestEntityBox().async();
+        store.close();
+        try {
+            asyncBox.put(createTestEntity("closed", 1));
+            fail("Should have thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("Store is closed", e.getMessage());
+        }
+    }
+
+}
@@ -27,7 +27,14 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -113,6 +120,118 @@ public class BoxStoreBuilderTest extends AbstractObjectBoxTest {
 //        assertEquals(DbMaxReadersExceededException.class, exHolder[0].getClass());
     }
 
+    @Test
+    public void readTxPool_reusedTx_forgetsBoxesOfPreviousUse() {
+        builder = createBoxStoreBuilderWithTwoEntities(false);
+        store = builder.readTxPoolSize(1).build();
+        Box<TestEntity> box = getTestEntityBox();
+        Box<TestEntityMinimal> boxMinimal = store.boxFor(TestEntityMinimal.class);
+
+        Transaction firstTx = store.callInReadTx(() -> {
+            box.count();
+            Transaction tx = store.activeTx.get();
+            assertEquals(Collections.singletonList(box), tx.getBoxesWithActiveTxCursor());
+            return tx;
+        });
+        Transaction secondTx = store.callInReadTx(() -> {
+            boxMinimal.count();
+            Transaction tx = store.activeTx.get();
+            assertEquals(Collections.singletonList(boxMinimal), tx.getBoxesWithActiveTxCursor());
+            return tx;
+        });
+        assertSame(firstTx, secondTx);
+        assertTrue(secondTx.getBoxesWithActiveTxCursor().isEmpty());
+    }
+
+    @Test
+    public void readTxPool_sharedByThreads() throws InterruptedException {
+        builder = createBoxStoreBuilder(null);
+        store = builder.readTxPoolSize(2).build();
+        getTestEntityBox().put(createTestEntity("pooled", 1));
+
+        int threadCount = 50;
+        AtomicInteger found = new AtomicInteger();
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                if (getTestEntityBox().get(1) != null && getTestEntityBox().count() == 1
+                        && store.callInReadTx(() -> getTestEntityBox().count()) == 1) {
+                    found.incrementAndGet();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        assertEquals(threadCount, found.get());
+        assertNotNull(store.readTxPool);
+        assertEquals(0, store.readTxPool.getCheckedOutCount());
+        assertTrue(store.readTxPool.getIdleCount() <= 2);
+
+        // Sees changes committed after a pooled transaction was recycled.
+        getTestEntityBox().put(createTestEntity("pooled", 2));
+        assertEquals(2, getTestEntityBox().count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readTxPool_exceedingMaxReaders_throws() {
+        builder.maxReaders(10).readTxPoolSize(11).build();
+    }
+
+    @Test
+    public void executor_runsBackgroundTasks() throws InterruptedException {
+        AtomicInteger executed = new AtomicInteger();
+        Executor executor = command -> new Thread(() -> {
+            executed.incrementAndGet();
+            command.run();
+        }).start();
+        builder = createBoxStoreBuilder(null);
+        store = builder.executor(executor).build();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        store.runInTxAsync(() -> getTestEntityBox().put(new TestEntity()), (result, error) -> latch.countDown());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(executed.get() >= 1);
+        assertEquals(1, getTestEntityBox().count());
+    }
+
+    @Test
+    public void threadPool_bounded() throws InterruptedException {
+        builder = createBoxStoreBuilder(null);
+        store = builder.threadPool(1, 2).build();
+
+        CountDownLatch blockLatch = new CountDownLatch(1);
+        store.internalScheduleThread(() -> {
+            try {
+                blockLatch.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        store.internalScheduleThread(() -> { });
+        store.internalScheduleThread(() -> { });
+        assertEquals(2, store.getExecutorQueuedTaskCount());
+
+        // Queue is full: trying to submit does not wait, submitting blocks until there is room.
+        assertFalse(store.internalTryScheduleThread(() -> { }));
+        assertEquals(2, store.getExecutorQueuedTaskCount());
+        CountDownLatch submittedLatch = new CountDownLatch(1);
+        new Thread(() -> {
+            store.internalScheduleThread(() -> { });
+            submittedLatch.countDown();
+        }).start();
+        assertFalse(submittedLatch.await(200, TimeUnit.MILLISECONDS));
+
+        blockLatch.countDown();
+        assertTrue(submittedLatch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void executorAndThreadPool_throws() {
+        builder.threadPool(2, 10).executor(Runnable::run);
+    }
+
     @Test
     public void readOnly() {
         // Create a database first; we must create the model only once (ID/UID sequences would be different 2nd time)
@@ -21,12 +21,16 @@ import org.junit.Test;
 
 import java.io.File;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -264,4 +268,91 @@ public class BoxStoreTest extends AbstractObjectBoxTest {
         }
     }
 
+    @Test
+    public void snapshot_consistentAcrossThreads() throws InterruptedException {
+        store.close();
+        store = createBoxStoreBuilder(null).noReaderThreadLocals().build();
+        Box<TestEntity> box = getTestEntityBox();
+        box.put(createTestEntity("before", 1));
+
+        ReadSnapshot snapshot = store.snapshot(4);
+        int commitCount = snapshot.getCommitCount();
+        box.put(createTestEntity("after", 2));
+        assertTrue(snapshot.isObsolete());
+
+        // Threads share the snapshot, read at the same time and only see data committed before it was created.
+        AtomicLong countInSnapshot = new AtomicLong();
+        Thread[] threads = new Thread[4];
+        CountDownLatch allReading = new CountDownLatch(threads.length);
+        for (int i = 0; i < threads.length; i++) {
+            ReadSnapshot retained = snapshot.retain();
+            threads[i] = new Thread(() -> {
+                try {
+                    countInSnapshot.addAndGet(retained.callInReadTx(() -> {
+                        allReading.countDown();
+                        assertTrue(allReading.await(5, TimeUnit.SECONDS));
+                        return box.count();
+                    }));
+                } finally {
+                    retained.close();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        assertEquals(0, allReading.getCount());
+        assertEquals(threads.length, countInSnapshot.get());
+        assertEquals(commitCount, snapshot.getCommitCount());
+        assertEquals(2, box.count());
+
+        assertFalse(snapshot.isClosed());
+        snapshot.close();
+        assertTrue(snapshot.isClosed());
+        try {
+            snapshot.runInReadTx(box::count);
+            fail("Should have thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("Snapshot is closed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void snapshot_readOnlyStore() {
+        // Re-open with the same model; a new model would have different IDs.
+        store.close();
+        byte[] model = createTestModel(null);
+        BoxStoreBuilder builder = new BoxStoreBuilder(model).directory(boxStoreDir);
+        builder.entity(new TestEntity_());
+        store = builder.build();
+        getTestEntityBox().put(createTestEntity("before", 1));
+        store.close();
+
+        builder = new BoxStoreBuilder(model).directory(boxStoreDir).readOnly().noReaderThreadLocals();
+        builder.entity(new TestEntity_());
+        store = builder.build();
+        assertTrue(store.isReadOnly());
+
+        // No write transaction can be begun to block writers, but none are needed either.
+        ReadSnapshot snapshot = store.snapshot(2);
+        assertEquals(1, (long) snapshot.callInReadTx(getTestEntityBox()::count));
+        snapshot.close();
+    }
+
+    @Test
+    public void snapshot_exceedingReaderSlots_throws() {
+        store.close();
+        store = createBoxStoreBuilder(null).maxReaders(10).readTxPoolSize(8).build();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> store.snapshot(3));
+        assertEquals("Parallelism 3 exceeds the 2 reader slots not used by the read TX pool",
+                exception.getMessage());
+        store.snapshot(2).close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void snapshot_withoutNoReaderThreadLocals_throws() {
+        store.snapshot(1);
+    }
+
 }
\ No newline at end of file
@@ -25,6 +25,11 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import io.objectbox.collect.LongArrayList;
+import io.objectbox.collect.LongCollection;
+import io.objectbox.collect.LongHashSet;
+import io.objectbox.collect.LongObjectMap;
+
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -322,6 +327,45 @@ public class BoxTest extends AbstractObjectBoxTest {
         assertEquals((long) ids.get(1), map.get(ids.get(1)).getId());
     }
 
+    @Test
+    public void testGetIdsArray() {
+        List<TestEntity> entities = putTestEntities(5);
+        long missingId = entities.get(4).getId() + 1;
+        long[] ids = {entities.get(3).getId(), missingId, entities.get(1).getId()};
+
+        List<TestEntity> readEntities = box.get(ids);
+        assertEquals(2, readEntities.size());
+        assertEquals(ids[0], readEntities.get(0).getId());
+        assertEquals(ids[2], readEntities.get(1).getId());
+
+        LongObjectMap<TestEntity> map = box.getMap(ids);
+        assertEquals(3, map.size());
+        assertEquals(ids[0], map.get(ids[0]).getId());
+        assertEquals(ids[2], map.get(ids[2]).getId());
+        assertTrue(map.containsKey(missingId));
+        assertNull(map.get(missingId));
+    }
+
+    @Test
+    public void testGetRemoveIdCollections() {
+        List<TestEntity> entities = putTestEntities(5);
+        LongArrayList ids = new LongArrayList();
+        ids.add(entities.get(3).getId());
+        ids.add(entities.get(1).getId());
+
+        List<TestEntity> readEntities = box.get(ids);
+        assertEquals(2, readEntities.size());
+        assertEquals(ids.get(0), readEntities.get(0).getId());
+        assertEquals(ids.get(1), readEntities.get(1).getId());
+        assertEquals(2, box.getMap(ids).size());
+
+        LongHashSet idSet = new LongHashSet(ids.toArray());
+        box.removeByIds(idSet);
+        assertEquals(3, box.count());
+        assertNull(box.get(ids.get(0)));
+        assertNull(box.get(ids.get(1)));
+    }
+
     @Test
     public void testTwoReaders() {
         store.close();
@@ -341,7 +385,8 @@ public class BoxTest extends AbstractObjectBoxTest {
         box.put((TestEntity[]) null);
         box.remove((Collection<TestEntity>) null);
         box.remove((long[]) null);
-        box.removeByIds(null);
+        box.removeByIds((Collection<Long>) null);
+        box.removeByIds((LongCollection) null);
     }
 
     @Test
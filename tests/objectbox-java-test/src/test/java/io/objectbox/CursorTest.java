@@ -19,6 +19,8 @@ package io.objectbox;
 import io.objectbox.annotation.IndexType;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -49,6 +51,24 @@ public class CursorTest extends AbstractObjectBoxTest {
         transaction.abort();
     }
 
+    @Test
+    public void testPutBatch() {
+        List<TestEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            entities.add(createTestEntity("batch" + i, i));
+        }
+        Transaction transaction = store.beginTx();
+        Cursor<TestEntity> cursor = transaction.createCursor(TestEntity.class);
+        assertEquals(3, cursor.putBatch(entities));
+        for (TestEntity entity : entities) {
+            assertTrue(entity.getId() != 0);
+            assertEquals(entity.getSimpleString(), cursor.get(entity.getId()).getSimpleString());
+        }
+        cursor.close();
+        transaction.commitAndClose();
+        assertEquals(3, getTestEntityBox().count());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testPutEntityWithInvalidId() {
         TestEntity entity = new TestEntity();
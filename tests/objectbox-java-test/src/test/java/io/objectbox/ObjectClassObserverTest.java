@@ -34,7 +34,9 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 
@@ -488,4 +490,53 @@ public class ObjectClassObserverTest extends AbstractObjectBoxTest {
         assertNoStaleObservers();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void subscribeChanges_deliversObjectIds() {
+        List<ObjectChanges> receivedChanges = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        DataSubscription subscription = store.subscribeChanges().onlyChanges().observer(changes -> {
+            receivedChanges.add(changes);
+            latch.countDown();
+        });
+
+        store.runInTx(() -> {
+            List<TestEntity> entities = putTestEntities(3);
+            getTestEntityBox().remove(entities.get(0));
+            store.boxFor(TestEntityMinimal.class).put(new TestEntityMinimal());
+        });
+        assertLatchCountedDown(latch, 5);
+        subscription.cancel();
+
+        assertEquals(2, receivedChanges.size());
+        for (ObjectChanges changes : receivedChanges) {
+            assertTrue(changes.isComplete());
+            if (changes.getEntityClass() == TestEntity.class) {
+                assertArrayEquals(new long[]{2, 3}, changes.getChangedIds());
+                assertArrayEquals(new long[]{1}, changes.getRemovedIds());
+            } else {
+                assertEquals(TestEntityMinimal.class, changes.getEntityClass());
+                assertArrayEquals(new long[]{1}, changes.getChangedIds());
+                assertEquals(0, changes.getRemovedIds().length);
+            }
+        }
+    }
+
+    @Test
+    public void subscribeChanges_removeAll_incomplete() {
+        putTestEntities(3);
+        List<ObjectChanges> receivedChanges = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        DataSubscription subscription = store.subscribeChanges(TestEntity.class).onlyChanges().observer(changes -> {
+            receivedChanges.add(changes);
+            latch.countDown();
+        });
+
+        getTestEntityBox().removeAll();
+        assertLatchCountedDown(latch, 5);
+        subscription.cancel();
+
+        assertEquals(1, receivedChanges.size());
+        assertFalse(receivedChanges.get(0).isComplete());
+    }
+
+}
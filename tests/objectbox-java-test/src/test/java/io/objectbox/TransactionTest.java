@@ -38,6 +38,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -243,7 +244,7 @@ public class TransactionTest extends AbstractObjectBoxTest {
     @Ignore("Tests robustness in invalid usage scenarios with lots of errors raised and resources leaked." +
             "Only run this test manually from time to time, but spare regular test runs from those errors.")
     public void testTxGC() throws InterruptedException {
-        // Trigger pending finalizers so we have less finalizers to run later
+        // Trigger GC so native resources of previously leaked objects are released before
         System.gc();
         System.runFinalization();
 
@@ -283,6 +284,79 @@ public class TransactionTest extends AbstractObjectBoxTest {
         assertEquals(count, threadsOK.get());
     }
 
+    @Test
+    public void activeTxCursor_onlyTouchedBoxesTracked() {
+        Box<TestEntity> box = getTestEntityBox();
+        store.runInTx(() -> {
+            Transaction tx = InternalAccess.getActiveTx(store);
+            assertTrue(tx.getBoxesWithActiveTxCursor().isEmpty());
+            box.put(createTestEntity("first", 1));
+            box.put(createTestEntity("second", 2));
+            assertEquals(1, tx.getBoxesWithActiveTxCursor().size());
+            assertSame(box, tx.getBoxesWithActiveTxCursor().get(0));
+            assertNotNull(box.activeTxCursor.get());
+        });
+        // Closed on commit.
+        assertNull(box.activeTxCursor.get());
+
+        store.runInReadTx(() -> {
+            assertEquals(2, box.count());
+            assertNotNull(box.activeTxCursor.get());
+        });
+        assertNull(box.activeTxCursor.get());
+    }
+
+    @Test
+    public void activeTxCursor_clearedOnAbort() {
+        store.close();
+        store.deleteAllFiles();
+        store = createBoxStoreBuilderWithTwoEntities(false).build();
+        Box<TestEntity> box = getTestEntityBox();
+        Box<TestEntityMinimal> otherBox = store.boxFor(TestEntityMinimal.class);
+        try {
+            store.runInTx(() -> {
+                box.put(createTestEntity("aborted", 1));
+                throw new IllegalStateException("Abort");
+            });
+            fail("Should have thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("Abort", e.getMessage());
+        }
+        assertNull(box.activeTxCursor.get());
+
+        // A later TX not touching the box must not leave it with a cursor of the aborted TX.
+        store.runInTx(() -> otherBox.put(new TestEntityMinimal(0, "other")));
+        box.put(createTestEntity("committed", 2));
+        assertEquals(1, box.count());
+        assertEquals(1, otherBox.count());
+        assertEquals("committed", box.getAll().get(0).getSimpleString());
+    }
+
+    @Test
+    public void storeClose_closesTransactionsOfAllThreads() throws InterruptedException {
+        int openBefore = store.internalOpenTransactionCount();
+        Transaction[] transactions = new Transaction[4];
+        Thread[] threads = new Thread[transactions.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> transactions[index] = store.beginReadTx());
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Transaction ownTx = store.beginReadTx();
+        assertEquals(openBefore + transactions.length + 1, store.internalOpenTransactionCount());
+        ownTx.close();
+        assertEquals(openBefore + transactions.length, store.internalOpenTransactionCount());
+
+        store.close();
+        for (Transaction tx : transactions) {
+            assertTrue(tx.isClosed());
+        }
+        assertEquals(0, store.internalOpenTransactionCount());
+    }
+
     @Test
     public void testClose() {
         Transaction tx = store.beginReadTx();
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.collect;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LongArrayListTest {
+
+    @Test
+    public void addGetRemove() {
+        LongArrayList list = new LongArrayList();
+        assertTrue(list.isEmpty());
+        for (long i = 0; i < 100; i++) {
+            list.add(i * 10);
+        }
+        assertEquals(100, list.size());
+        assertEquals(500, list.get(50));
+        assertTrue(list.contains(990));
+        assertFalse(list.contains(5));
+        assertEquals(3, list.indexOf(30));
+
+        assertEquals(0, list.removeAt(0));
+        assertEquals(10, list.get(0));
+        assertEquals(990, list.removeAt(98));
+        assertEquals(98, list.size());
+        assertEquals(10, list.set(0, 7));
+        assertEquals(7, list.get(0));
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertArrayEquals(new long[0], list.toArray());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void get_outOfBounds_throws() {
+        LongArrayList list = new LongArrayList(10);
+        list.add(1);
+        list.get(1);
+    }
+
+    @Test
+    public void addAllSortEquals() {
+        LongArrayList list = new LongArrayList(new long[]{3, 1});
+        list.addAll(new long[]{2, 5});
+        list.addAll(new LongArrayList(new long[]{4}));
+        list.sort();
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5}, list.toArray());
+        assertEquals("[1, 2, 3, 4, 5]", list.toString());
+
+        LongArrayList other = new LongArrayList(new long[]{1, 2, 3, 4, 5});
+        assertEquals(other, list);
+        assertEquals(other.hashCode(), list.hashCode());
+        other.add(6);
+        assertNotEquals(other, list);
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 ObjectBox Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.objectbox.internal;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class NativeResourceTrackerTest {
+
+    private final NativeResourceTracker tracker = NativeResourceTracker.getInstance();
+
+    /**
+     * Best-effort: System.gc() is only a hint, so this is skipped if the owner was not collected in time.
+     */
+    @Test
+    public void notClosed_releasedAfterGc() throws InterruptedException {
+        long leakedBefore = tracker.getLeakedCount();
+        CountDownLatch released = new CountDownLatch(1);
+        AtomicLong releasedHandle = new AtomicLong();
+        registerGarbage(42, handle -> {
+            releasedHandle.set(handle);
+            released.countDown();
+        });
+        for (int i = 0; i < 50 && released.getCount() > 0; i++) {
+            System.gc();
+            released.await(100, TimeUnit.MILLISECONDS);
+        }
+        assumeTrue("Owner was not garbage collected in time", released.getCount() == 0);
+        assertEquals(42, releasedHandle.get());
+        assertTrue(tracker.getLeakedCount() > leakedBefore);
+    }
+
+    private void registerGarbage(long handle, NativeResourceTracker.NativeReleaser releaser) {
+        tracker.register(new Object(), "Test", handle, releaser, false, null);
+    }
+
+    @Test
+    public void closed_notReleased() throws InterruptedException {
+        AtomicLong releaseCount = new AtomicLong();
+        Object owner = new Object();
+        int trackedBefore = tracker.getTrackedCount();
+        NativeResourceTracker.Registration registration = tracker.register(owner, "Test", 1,
+                handle -> releaseCount.incrementAndGet(), false, null);
+        assertEquals(trackedBefore + 1, tracker.getTrackedCount());
+        registration.unregister();
+        assertEquals(trackedBefore, tracker.getTrackedCount());
+
+        //noinspection UnusedAssignment Make owner unreachable.
+        owner = null;
+        System.gc();
+        Thread.sleep(100);
+        assertEquals(0, releaseCount.get());
+        assertTrue(tracker.getTrackedCount() <= trackedBefore);
+    }
+}
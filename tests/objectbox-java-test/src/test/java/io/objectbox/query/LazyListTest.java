@@ -21,6 +21,7 @@ import org.junit.Test;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
 
 import io.objectbox.AbstractObjectBoxTest;
 import io.objectbox.TestEntity;
@@ -32,6 +33,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -176,6 +178,83 @@ public class LazyListTest extends AbstractObjectBoxTest {
         }
     }
 
+    @Test
+    public void testWindowed() {
+        List<TestEntity> list = putTestEntities(100);
+        LazyList<TestEntity> listLazy = getTestEntityBox().query().build().findLazyWindowed(10, 3);
+        assertEquals(100, listLazy.size());
+        assertNull(listLazy.peek(15));
+
+        assertIds(list.get(15), listLazy.get(15));
+        assertEquals(1, listLazy.getWindowLoadCount());
+        // Same window, no further fetch.
+        assertIds(list.get(19), listLazy.get(19));
+        assertNotNull(listLazy.peek(10));
+        assertEquals(1, listLazy.getWindowLoadCount());
+
+        // Random access to other windows: least recently used windows are dropped.
+        listLazy.get(95);
+        listLazy.get(55);
+        listLazy.get(35);
+        assertEquals(4, listLazy.getWindowLoadCount());
+        assertEquals(3, listLazy.getCachedWindowCount());
+        assertNull(listLazy.peek(15));
+
+        try {
+            listLazy.loadRemaining();
+            fail("Should throw");
+        } catch (DbException expected) {
+            // Expected, OK
+        }
+    }
+
+    @Test
+    public void testWindowedIterator() {
+        List<TestEntity> list = putTestEntities(100);
+        LazyList<TestEntity> listLazy = getTestEntityBox().query().build().findLazyWindowed(10, 3);
+        assertIds(list, listLazy);
+        // Each window fetched once, either on access or read ahead.
+        assertEquals(10, listLazy.getWindowLoadCount());
+        assertTrue(listLazy.getCachedWindowCount() <= 3);
+    }
+
+    @Test
+    public void testWindowed_saturatedThreadPool_dropsReadAhead() {
+        store.close();
+        store = createBoxStoreBuilder(null).threadPool(1, 1).build();
+        List<TestEntity> list = putTestEntities(100);
+
+        // Occupy the only thread and fill the queue.
+        CountDownLatch blockLatch = new CountDownLatch(1);
+        try {
+            store.internalScheduleThread(() -> {
+                try {
+                    blockLatch.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            store.internalScheduleThread(() -> { });
+
+            // Reading ahead is dropped instead of waiting for queue room, windows are loaded on access.
+            LazyList<TestEntity> listLazy = getTestEntityBox().query().build().findLazyWindowed(10, 3);
+            assertIds(list, listLazy);
+            assertEquals(10, listLazy.getWindowLoadCount());
+        } finally {
+            blockLatch.countDown();
+        }
+    }
+
+    @Test
+    public void testWindowed_invalidArgs_throws() {
+        Query<TestEntity> query = getTestEntityBox().query().build();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> query.findLazyWindowed(0, 3));
+        assertEquals("windowSize must be at least 1", exception.getMessage());
+        // A single window would be replaced by the read ahead window while it is accessed.
+        exception = assertThrows(IllegalArgumentException.class, () -> query.findLazyWindowed(10, 1));
+        assertEquals("maxWindows must be at least 2", exception.getMessage());
+    }
 
     protected void assertIds(List<TestEntity> list, List<TestEntity> list2) {
         for (int i = 0; i < list.size(); i++) {
@@ -40,6 +40,7 @@ import static io.objectbox.TestEntity_.simpleLongU;
 import static io.objectbox.TestEntity_.simpleShort;
 import static io.objectbox.TestEntity_.simpleShortU;
 import static io.objectbox.TestEntity_.simpleString;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -129,6 +130,108 @@ public class PropertyQueryTest extends AbstractQueryTest {
         assertEquals(2, query.property(simpleString).nullValue("****").distinct().findStrings().length);
     }
 
+    @Test
+    public void project_alignedByObject() {
+        TestEntity entityNull = putTestEntity(null, 1);
+        TestEntity entity = putTestEntity("foo", 2);
+        Query<TestEntity> query = box.query().build();
+
+        ProjectionResult<TestEntity> result = query.project(simpleString, simpleInt, simpleLong, simpleBoolean)
+                .nullValue(simpleString, "****")
+                .find();
+        assertEquals(2, result.size());
+        long[] ids = result.getIds();
+        String[] strings = result.getStrings(simpleString);
+        int[] ints = result.getInts(simpleInt);
+        long[] longs = result.getLongs(simpleLong);
+        assertEquals(2, result.getBooleans(simpleBoolean).length);
+        for (int i = 0; i < ids.length; i++) {
+            TestEntity expected = ids[i] == entity.getId() ? entity : entityNull;
+            assertEquals(expected.getId(), ids[i]);
+            assertEquals(expected == entity ? "foo" : "****", strings[i]);
+            assertEquals(expected.getSimpleInt(), ints[i]);
+            assertEquals(expected.getSimpleLong(), longs[i]);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> result.getLongs(simpleInt));
+        assertThrows(IllegalArgumentException.class, () -> result.getInts(simpleShort));
+        assertThrows(IllegalArgumentException.class, () -> query.project(simpleByteArray));
+    }
+
+    @Test
+    public void groupBy_aggregate() {
+        putTestEntity(null, 1);
+        for (int nr = 2; nr <= 6; nr++) {
+            putTestEntity("s" + nr, nr);
+        }
+        // Keys: simpleBoolean is true (1) for even numbers.
+        QueryGroupBy<TestEntity> groupBy = box.query().build().groupBy(simpleBoolean);
+
+        GroupAggregates sums = groupBy.aggregate(simpleLong, QueryGroupBy.Aggregate.SUM);
+        assertArrayEquals(new long[]{0, 1}, sums.getKeys());
+        assertEquals(1001 + 1003 + 1005, sums.getLong(0));
+        assertEquals(1002 + 1004 + 1006, sums.getLong(1));
+
+        GroupAggregates mins = groupBy.aggregate(simpleInt, QueryGroupBy.Aggregate.MIN);
+        assertEquals(1, mins.getLong(0));
+        assertEquals(2, mins.getLong(1));
+
+        GroupAggregates maxs = groupBy.aggregate(simpleDouble, QueryGroupBy.Aggregate.MAX);
+        assertFalse(maxs.hasLongValues());
+        assertEquals(2000.05, maxs.getDouble(0), 0.001);
+
+        GroupAggregates avgs = groupBy.aggregate(simpleInt, QueryGroupBy.Aggregate.AVG);
+        assertEquals(3, avgs.getDouble(0), 0.001);
+        assertEquals(4, avgs.getDouble(1), 0.001);
+
+        // Null strings are not counted.
+        GroupAggregates counts = groupBy.aggregate(simpleString, QueryGroupBy.Aggregate.COUNT);
+        assertEquals(2, counts.getLong(0));
+        assertEquals(3, counts.getLong(1));
+        assertEquals(-1, counts.indexOf(2));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> groupBy.aggregate(simpleString, QueryGroupBy.Aggregate.SUM));
+        assertThrows(IllegalArgumentException.class, () -> box.query().build().groupBy(simpleString));
+    }
+
+    @Test
+    public void groupBy_valueEqualToNullMarker() {
+        putTestEntity("min", Integer.MIN_VALUE);
+        putTestEntity("two", 2);
+        TestEntityCursor.INT_NULL_HACK = true;
+        try {
+            putTestEntity("null", 4);
+        } finally {
+            TestEntityCursor.INT_NULL_HACK = false;
+        }
+        // All keys are true (1).
+        QueryGroupBy<TestEntity> groupBy = box.query().build().groupBy(simpleBoolean);
+
+        // Actual values equal to the value found for null internally are not treated as null.
+        GroupAggregates mins = groupBy.aggregate(simpleInt, QueryGroupBy.Aggregate.MIN);
+        assertArrayEquals(new long[]{1}, mins.getKeys());
+        assertEquals(Integer.MIN_VALUE, mins.getLong(0));
+        GroupAggregates counts = groupBy.aggregate(simpleInt, QueryGroupBy.Aggregate.COUNT);
+        assertEquals(2, counts.getLong(0));
+    }
+
+    @Test
+    public void groupBy_unsigned_throws() {
+        putTestEntity("s", 2);
+        Query<TestEntity> query = box.query().build();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> query.groupBy(simpleIntU));
+        assertTrue(exception.getMessage().startsWith("Unsigned key properties are not supported"));
+
+        QueryGroupBy<TestEntity> groupBy = query.groupBy(simpleBoolean);
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> groupBy.aggregate(simpleLongU, QueryGroupBy.Aggregate.SUM));
+        assertTrue(exception.getMessage().startsWith("Unsigned properties are not supported for SUM"));
+        // Counting does not depend on the values.
+        assertEquals(1, groupBy.aggregate(simpleLongU, QueryGroupBy.Aggregate.COUNT).getLong(0));
+    }
+
     @Test
     public void testFindInts_nullValue() {
         putTestEntity(null, 1);
@@ -5,6 +5,7 @@ import org.junit.Test;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 
@@ -26,6 +27,24 @@ public class QueryFilterComparatorTest extends AbstractQueryTest {
         assertEquals("apple#banana milk shake#", stringBuilder.toString());
     }
 
+    @Test
+    public void filter_stream() {
+        putTestEntitiesStrings();
+        String joined = box.query().filter(createTestFilter()).build().stream()
+                .map(TestEntity::getSimpleString)
+                .collect(Collectors.joining("#"));
+        assertEquals("apple#banana milk shake", joined);
+    }
+
+    @Test
+    public void filter_findParallel() {
+        putTestEntitiesStrings();
+        List<TestEntity> entities = box.query().filter(createTestFilter()).build().findParallel();
+        assertEquals(2, entities.size());
+        assertEquals("apple", entities.get(0).getSimpleString());
+        assertEquals("banana milk shake", entities.get(1).getSimpleString());
+    }
+
     @Test
     public void filter_find() {
         putTestEntitiesStrings();
@@ -52,6 +71,15 @@ public class QueryFilterComparatorTest extends AbstractQueryTest {
         assertEquals("apple", entities.get(4).getSimpleString());
     }
 
+    @Test
+    public void comparator_findParallel() {
+        putTestEntitiesStrings();
+        List<TestEntity> entities = box.query().sort(createTestComparator()).build().findParallel();
+        assertEquals(5, entities.size());
+        assertEquals("banana", entities.get(0).getSimpleString());
+        assertEquals("apple", entities.get(4).getSimpleString());
+    }
+
     @Test(expected = UnsupportedOperationException.class)
     public void filter_count_unsupported() {
         box.query()
@@ -108,6 +136,14 @@ public class QueryFilterComparatorTest extends AbstractQueryTest {
                 .findLazyCached();
     }
 
+    @Test(expected = UnsupportedOperationException.class)
+    public void comparator_stream_unsupported() {
+        box.query()
+                .sort(createTestComparator())
+                .build()
+                .stream();
+    }
+
     @Test(expected = UnsupportedOperationException.class)
     public void comparator_forEach_unsupported() {
         box.query()
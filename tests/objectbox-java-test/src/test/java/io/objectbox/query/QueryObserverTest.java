@@ -35,6 +35,7 @@ import io.objectbox.reactive.DataSubscription;
 
 
 import static io.objectbox.TestEntity_.simpleInt;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -235,6 +236,128 @@ public class QueryObserverTest extends AbstractObjectBoxTest {
         assertEquals(2, (int) placing.get(1));
     }
 
+    @Test
+    public void coalesce_collapsesChanges() throws InterruptedException {
+        Query<TestEntity> query = box.query().build();
+        TestObserver<List<TestEntity>> testObserver = new TestObserver<>();
+        DataSubscription subscription = query.subscribe()
+                .onlyChanges()
+                .coalesce(500)
+                .observer(testObserver);
+
+        int putCount = 20;
+        for (int i = 0; i < putCount; i++) {
+            box.put(createTestEntity("coalesce", i));
+        }
+
+        // Wait until the result containing all objects was delivered.
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            int received = testObserver.receivedChanges.size();
+            if (received > 0 && testObserver.receivedChanges.get(received - 1).size() == putCount) break;
+            Thread.sleep(10);
+        }
+        subscription.cancel();
+
+        int received = testObserver.receivedChanges.size();
+        assertTrue(received > 0);
+        assertTrue("Expected fewer deliveries than changes, got " + received, received < putCount);
+        assertEquals(putCount, testObserver.receivedChanges.get(received - 1).size());
+        assertEquals(received, query.getPublishRunCount());
+        assertTrue(query.getPublishSkippedRunCount() > 0);
+    }
+
+    @Test
+    public void coalesce_perObserver() {
+        Query<TestEntity> query = box.query().build();
+        TestObserver<List<TestEntity>> coalescingObserver = new TestObserver<>();
+        TestObserver<List<TestEntity>> observer = new TestObserver<>();
+        DataSubscription coalescingSubscription = query.subscribe()
+                .onlyChanges()
+                .coalesce(60_000)
+                .observer(coalescingObserver);
+        DataSubscription subscription = query.subscribe()
+                .onlyChanges()
+                .observer(observer);
+
+        // The observer not coalescing gets every change, the coalescing one only the first within its interval.
+        for (int i = 1; i <= 3; i++) {
+            box.put(createTestEntity("coalesce", i));
+            waitForChanges(observer, i);
+        }
+        assertEquals(1, coalescingObserver.receivedChanges.size());
+        assertEquals(1, coalescingObserver.receivedChanges.get(0).size());
+
+        coalescingSubscription.cancel();
+        subscription.cancel();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void coalesce_unsupportedPublisher_throws() {
+        store.subscribe(TestEntity.class).coalesce(100).observer(data -> {
+        });
+    }
+
+    @Test
+    public void subscribeChanges() {
+        List<TestEntity> entities = putTestEntities(3);
+        Query<TestEntity> query = box.query().less(simpleInt, 3).build();
+
+        // Initial changes on subscription.
+        TestObserver<QueryChanges> testObserver = new TestObserver<>();
+        DataSubscription subscription = query.subscribeChanges().observer(testObserver);
+        testObserver.assertLatchCountedDown();
+        assertEquals(1, testObserver.receivedChanges.size());
+        QueryChanges initial = testObserver.receivedChanges.get(0);
+        assertTrue(initial.isInitial());
+        assertArrayEquals(new long[]{entities.get(0).getId(), entities.get(1).getId()}, initial.getAddedIds());
+        // Shared by observers, must not be modifiable.
+        initial.getAddedIds()[0] = -1;
+        assertEquals(entities.get(0).getId(), initial.getAddedIds()[0]);
+
+        // Remove one matching, add one matching object.
+        testObserver.receivedChanges.clear();
+        long addedId = box.put(createTestEntity("added", 0));
+        waitForChanges(testObserver, 1);
+        box.remove(entities.get(0));
+        waitForChanges(testObserver, 2);
+
+        QueryChanges added = testObserver.receivedChanges.get(0);
+        assertFalse(added.isInitial());
+        assertArrayEquals(new long[]{addedId}, added.getAddedIds());
+        assertEquals(0, added.getRemovedIds().length);
+        QueryChanges removed = testObserver.receivedChanges.get(1);
+        assertEquals(0, removed.getAddedIds().length);
+        assertArrayEquals(new long[]{entities.get(0).getId()}, removed.getRemovedIds());
+        // Only changed objects are reported as updated.
+        assertEquals(0, removed.getUpdatedIds().length);
+
+        // Update a matching object.
+        testObserver.receivedChanges.clear();
+        TestEntity updatedEntity = entities.get(1);
+        updatedEntity.setSimpleString("updated");
+        box.put(updatedEntity);
+        waitForChanges(testObserver, 1);
+        QueryChanges updated = testObserver.receivedChanges.get(0);
+        assertEquals(0, updated.getAddedIds().length);
+        assertEquals(0, updated.getRemovedIds().length);
+        assertArrayEquals(new long[]{updatedEntity.getId()}, updated.getUpdatedIds());
+
+        subscription.cancel();
+    }
+
+    private static void waitForChanges(TestObserver<?> testObserver, int count) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (testObserver.receivedChanges.size() < count && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        assertEquals(count, testObserver.receivedChanges.size());
+    }
+
     private void putTestEntitiesScalars() {
         putTestEntities(10, null, 2000);
     }
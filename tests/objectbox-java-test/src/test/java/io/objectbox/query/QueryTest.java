@@ -20,8 +20,11 @@ import io.objectbox.Box;
 import io.objectbox.BoxStore;
 import io.objectbox.BoxStoreBuilder;
 import io.objectbox.DebugFlags;
+import io.objectbox.ReadSnapshot;
 import io.objectbox.TestEntity;
 import io.objectbox.TestEntity_;
+import io.objectbox.collect.LongArrayList;
+import io.objectbox.collect.LongHashSet;
 import io.objectbox.exception.DbExceptionListener;
 import io.objectbox.exception.NonUniqueResultException;
 import io.objectbox.query.QueryBuilder.StringOrder;
@@ -32,13 +35,20 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static io.objectbox.TestEntity_.simpleBoolean;
 import static io.objectbox.TestEntity_.simpleByteArray;
 import static io.objectbox.TestEntity_.simpleFloat;
 import static io.objectbox.TestEntity_.simpleInt;
+import static io.objectbox.TestEntity_.simpleIntU;
 import static io.objectbox.TestEntity_.simpleLong;
 import static io.objectbox.TestEntity_.simpleShort;
 import static io.objectbox.TestEntity_.simpleString;
@@ -47,6 +57,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
@@ -220,6 +231,26 @@ public class QueryTest extends AbstractQueryTest {
         assertEquals(2, query.count());
     }
 
+    @Test
+    public void testLongIn_idCollections() {
+        putTestEntitiesScalars();
+
+        LongArrayList values = new LongArrayList(new long[]{3003, 3007});
+        Query<TestEntity> query = box.query().in(simpleLong, new long[]{1}).parameterAlias("long").build();
+        query.setParameters(simpleLong, values);
+        assertEquals(2, query.count());
+
+        LongHashSet idSet = query.findIdSet();
+        assertEquals(2, idSet.size());
+        for (long id : query.findIds()) {
+            assertTrue(idSet.contains(id));
+        }
+
+        values.add(3002);
+        query.setParameters("long", values);
+        assertEquals(3, query.count());
+    }
+
     @Test
     public void testIntNotIn() {
         putTestEntitiesScalars();
@@ -268,6 +299,201 @@ public class QueryTest extends AbstractQueryTest {
         assertEquals(2005, list.get(1).getSimpleInt());
     }
 
+    @Test
+    public void keysetQuery_pagesWithDuplicateSortKeys() {
+        List<TestEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            TestEntity entity = createTestEntity(null, i);
+            entity.setSimpleInt(i / 2); // Pairs of equal sort keys.
+            entities.add(entity);
+        }
+        box.put(entities);
+
+        KeysetQuery<TestEntity> query = box.query().buildKeysetQuery(simpleInt, 0);
+        List<Long> idsFound = new ArrayList<>();
+        QueryPage<TestEntity> page = query.findPage(2);
+        int pageCount = 1;
+        while (true) {
+            for (TestEntity entity : page.getItems()) {
+                idsFound.add(entity.getId());
+            }
+            if (page.isLastPage()) break;
+            page = query.findNextPage(page);
+            pageCount++;
+        }
+        assertEquals(5, pageCount);
+        assertEquals(9, idsFound.size());
+        for (int i = 0; i < 9; i++) {
+            assertEquals(entities.get(i).getId(), (long) idsFound.get(i));
+        }
+
+        // Resume from a stored sort key and ID.
+        List<TestEntity> after = query.findAfter(1, entities.get(2).getId(), 3);
+        assertEquals(3, after.size());
+        assertEquals(entities.get(3).getId(), after.get(0).getId());
+
+        KeysetQuery<TestEntity> queryDesc = box.query().buildKeysetQuery(simpleInt, QueryBuilder.DESCENDING);
+        QueryPage<TestEntity> pageDesc = queryDesc.findPage(4);
+        assertEquals(entities.get(8).getId(), pageDesc.getItems().get(0).getId());
+        assertEquals(entities.get(5).getId(), pageDesc.getLastId());
+        assertEquals(2, pageDesc.getLastSortKey());
+        pageDesc = queryDesc.findNextPage(pageDesc);
+        assertEquals(entities.get(4).getId(), pageDesc.getItems().get(0).getId());
+
+        assertThrows(IllegalStateException.class,
+                () -> box.query().order(simpleLong).buildKeysetQuery(simpleInt, 0));
+        assertThrows(IllegalArgumentException.class, () -> box.query().buildKeysetQuery(simpleString, 0));
+        assertThrows(IllegalArgumentException.class, () -> box.query().buildKeysetQuery(simpleIntU, 0));
+    }
+
+    @Test
+    public void findTop() {
+        putTestEntitiesScalars();
+        Query<TestEntity> ordered = box.query().order(simpleInt, QueryBuilder.DESCENDING).build();
+        assertEquals(idsOf(ordered.find().subList(0, 3)), idsOf(ordered.findTop(3)));
+
+        // Equal simpleBoolean values: ties keep the order of find().
+        Query<TestEntity> sorted = box.query()
+                .sort((a, b) -> Boolean.compare(a.getSimpleBoolean(), b.getSimpleBoolean()))
+                .build();
+        List<TestEntity> top = sorted.findTop(4);
+        assertEquals(idsOf(sorted.find().subList(0, 4)), idsOf(top));
+        for (TestEntity entity : top) {
+            assertFalse(entity.getSimpleBoolean());
+        }
+
+        Query<TestEntity> filteredSorted = box.query()
+                .filter(entity -> entity.getSimpleInt() % 3 == 0)
+                .sort((a, b) -> Integer.compare(b.getSimpleInt(), a.getSimpleInt()))
+                .build();
+        List<TestEntity> topFiltered = filteredSorted.findTop(2);
+        assertEquals(2, topFiltered.size());
+        assertEquals(2007, topFiltered.get(0).getSimpleInt());
+        assertEquals(2004, topFiltered.get(1).getSimpleInt());
+        assertEquals(4, filteredSorted.findTop(10).size());
+        assertEquals(0, filteredSorted.findTop(0).size());
+
+        Query<TestEntity> filtered = box.query().filter(entity -> entity.getSimpleInt() > 2004).build();
+        assertEquals(idsOf(filtered.find().subList(0, 2)), idsOf(filtered.findTop(2)));
+    }
+
+    private static List<Long> idsOf(List<TestEntity> entities) {
+        return entities.stream().map(TestEntity::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void preparedQuery_concurrentBindings() throws Exception {
+        putTestEntitiesScalars();
+        PreparedQuery<TestEntity> prepared = box.prepareQuery(qb -> qb.greater(simpleInt, 2000).order(simpleInt));
+        assertEquals(1, prepared.getBuildCount());
+        assertEquals(2, prepared.bind(simpleInt, 2007).count());
+        assertEquals(1, prepared.getBuildCount());
+        // Unbound parameter has the value of the definition, not of the previous call.
+        assertEquals(9, prepared.count());
+        assertEquals(2, prepared.getBuildCount());
+
+        int threadCount = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        int min = 2000 + i % 10;
+                        List<TestEntity> found = prepared.bind(simpleInt, min).find();
+                        assertEquals(9 - i % 10, found.size());
+                        if (!found.isEmpty()) {
+                            assertEquals(min + 1, found.get(0).getSimpleInt());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(prepared.getBuildCount() <= threadCount + 2);
+
+        prepared.close();
+        assertThrows(IllegalStateException.class, prepared::count);
+    }
+
+    @Test
+    public void preparedQuery_maxIdleQueries() {
+        PreparedQuery<TestEntity> prepared = new PreparedQuery<>(box, qb -> qb.greater(simpleInt, 2000), 1);
+        PreparedQuery.PooledQuery<TestEntity> first = prepared.acquire(Collections.emptySet());
+        PreparedQuery.PooledQuery<TestEntity> second = prepared.acquire(Collections.emptySet());
+        assertEquals(2, prepared.getBuildCount());
+        prepared.release(first);
+        // Pool is full, so the second query is closed instead of kept.
+        prepared.release(second);
+        assertSame(first, prepared.acquire(Collections.emptySet()));
+        PreparedQuery.PooledQuery<TestEntity> third = prepared.acquire(Collections.emptySet());
+        assertEquals(3, prepared.getBuildCount());
+        first.query.close();
+        third.query.close();
+        prepared.close();
+    }
+
+    @Test
+    public void cacheResults_hitsUntilCommit() {
+        putTestEntitiesScalars();
+        Query<TestEntity> query = box.query().greater(simpleInt, 0).parameterAlias("min")
+                .cacheResults(2)
+                .build();
+
+        query.setParameter(simpleInt, 2005);
+        assertEquals(4, query.find().size());
+        assertEquals(4, query.find().size());
+        assertEquals(4, query.count());
+        assertEquals(1, query.getResultCacheHitCount());
+        assertEquals(2, query.getResultCacheMissCount());
+        assertEquals(4, query.find().size()); // Now most recently used.
+
+        // Different parameter is a miss, previous one is still cached.
+        query.setParameter(simpleInt, 2007);
+        assertEquals(2, query.find().size());
+        query.setParameter(simpleInt, 2005);
+        assertEquals(4, query.find().size());
+        assertEquals(3, query.getResultCacheHitCount());
+        assertEquals(1, query.getResultCacheEvictionCount()); // count() result was dropped.
+
+        // Commit invalidates.
+        box.put(createTestEntity(null, 2010));
+        assertEquals(5, query.find().size());
+        assertEquals(5, query.find().size());
+        assertEquals(4, query.getResultCacheHitCount());
+
+        // Not cached in a transaction.
+        long missCount = query.getResultCacheMissCount();
+        store.runInReadTx(() -> assertEquals(5, query.find().size()));
+        assertEquals(missCount, query.getResultCacheMissCount());
+        query.close();
+    }
+
+    @Test
+    public void cacheResults_findReturnsOwnObjects() {
+        putTestEntitiesScalars();
+        Query<TestEntity> query = box.query().greater(simpleInt, 0).parameterAlias("min")
+                .cacheResults(2)
+                .build();
+        query.setParameter(simpleInt, 2005);
+        List<TestEntity> first = query.find();
+        first.get(0).setSimpleInt(-1);
+        List<TestEntity> second = query.find();
+        assertEquals(1, query.getResultCacheHitCount());
+        assertEquals(idsOf(first), idsOf(second));
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(2006, second.get(0).getSimpleInt());
+
+        // Via its alias the same condition would get a different cache key.
+        assertThrows(IllegalStateException.class, () -> query.setParameter("min", 2007));
+        assertEquals(4, query.count());
+        query.close();
+    }
+
     @Test
     public void testString() {
         List<TestEntity> entities = putTestEntitiesStrings();
@@ -857,6 +1083,99 @@ public class QueryTest extends AbstractQueryTest {
         assertEquals("banana", stringBuilder.toString());
     }
 
+    @Test
+    public void testStream() {
+        List<TestEntity> testEntities = putTestEntitiesStrings();
+        Query<TestEntity> query = box.query().startsWith(simpleString, "banana", StringOrder.CASE_INSENSITIVE).build();
+        String joined;
+        try (Stream<TestEntity> stream = query.stream(1)) {
+            joined = stream.map(TestEntity::getSimpleString).collect(Collectors.joining("#"));
+        }
+        assertEquals("banana#banana milk shake", joined);
+        try (Stream<TestEntity> stream = query.stream()) {
+            assertEquals(2, stream.count());
+        }
+
+        // Verify that the stream does not hang on to the read-only TX by doing a put
+        box.put(new TestEntity());
+        assertEquals(testEntities.size() + 1, box.count());
+    }
+
+    @Test
+    public void testStream_shortCircuit() {
+        putTestEntities(10);
+        Query<TestEntity> query = box.query().build();
+        try (Stream<TestEntity> stream = query.stream(3)) {
+            List<TestEntity> firstTwo = stream.limit(2).collect(Collectors.toList());
+            assertEquals(2, firstTwo.size());
+            assertEquals(1, firstTwo.get(0).getSimpleInt());
+            assertEquals(2, firstTwo.get(1).getSimpleInt());
+        }
+        assertEquals(10, query.stream(3).mapToInt(TestEntity::getSimpleInt).max().getAsInt());
+    }
+
+    @Test
+    public void testStream_parallel() {
+        putTestEntities(5000);
+        Query<TestEntity> query = box.query().build();
+        try (Stream<TestEntity> stream = query.stream(100).parallel()) {
+            List<Integer> values = stream.map(TestEntity::getSimpleInt).collect(Collectors.toList());
+            assertEquals(5000, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                assertEquals(i + 1, values.get(i).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void testFindParallel() {
+        putTestEntities(5000);
+        Query<TestEntity> query = box.query().less(simpleInt, 4000).build();
+        List<TestEntity> expected = query.find();
+        List<TestEntity> actual = query.findParallel();
+        assertEquals(3999, actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testFindParallel_snapshot() {
+        store.close();
+        store = createBoxStoreBuilder(null).noReaderThreadLocals().build();
+        box = getTestEntityBox();
+        putTestEntities(5000);
+        Query<TestEntity> query = box.query().less(simpleInt, 4000).build();
+        List<TestEntity> expected = query.find();
+        int openTransactions = store.internalOpenTransactionCount();
+
+        // Parts load from the read TXs of the snapshot, which stays open until closed by the caller.
+        try (ReadSnapshot snapshot = store.snapshot(2)) {
+            List<TestEntity> actual = query.findParallel(snapshot);
+            assertEquals(3999, actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            }
+            assertFalse(snapshot.isClosed());
+        }
+        assertEquals(openTransactions, store.internalOpenTransactionCount());
+
+        // Without a snapshot, no snapshot is created: parts use their own read TXs.
+        assertEquals(3999, query.findParallel().size());
+        try (Stream<TestEntity> stream = query.stream(100).parallel()) {
+            assertEquals(3999, stream.count());
+        }
+        assertEquals(openTransactions, store.internalOpenTransactionCount());
+    }
+
+    @Test
+    public void testStream_insideReadTx() {
+        putTestEntities(5);
+        Query<TestEntity> query = box.query().build();
+        long count = store.callInReadTx(() -> query.stream().count());
+        assertEquals(5, count);
+    }
+
     @Test
     // TODO can we improve? More than just "still works"?
     public void testQueryAttempts() {
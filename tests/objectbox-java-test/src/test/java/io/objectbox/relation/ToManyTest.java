@@ -25,6 +25,8 @@ import java.util.List;
 import java.util.concurrent.Callable;
 
 import io.objectbox.TestUtils;
+import io.objectbox.collect.LongArrayList;
+import io.objectbox.collect.LongHashSet;
 import io.objectbox.query.QueryFilter;
 
 import static org.junit.Assert.*;
@@ -202,6 +204,25 @@ public class ToManyTest extends AbstractRelationTest {
         assertOrder2And4Removed(count, customer, toMany);
     }
 
+    @Test
+    public void testRemoveByIds() {
+        int count = 5;
+        Customer customer = putCustomerWithOrders(count);
+        ToMany<Order> toMany = (ToMany<Order>) customer.orders;
+        LongArrayList ids = toMany.getTargetIds();
+        assertEquals(count, ids.size());
+        assertEquals(toMany.get(2).getId(), ids.get(2));
+
+        LongHashSet toRemove = new LongHashSet();
+        toRemove.add(ids.get(1));
+        toRemove.add(ids.get(3));
+        toRemove.add(42);
+        assertTrue(toMany.removeByIds(toRemove));
+        assertFalse(toMany.removeByIds(toRemove));
+        customerBox.put(customer);
+        assertOrder2And4Removed(count, customer, toMany);
+    }
+
     @Test
     public void testRetainAll() {
         int count = 5;